@@ -1,11 +1,13 @@
 package ec.edu.espe.Asistencia_con_Geofencing.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -28,4 +30,39 @@ public class AsyncConfiguration {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    @Bean(name = "geofenceBatchExecutor")
+    public Executor geofenceBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        // Validación por lotes: cálculo en memoria, un hilo por núcleo
+        int processors = Runtime.getRuntime().availableProcessors();
+        executor.setCorePoolSize(processors);
+        executor.setMaxPoolSize(processors);
+        executor.setQueueCapacity(1000);
+        // Si la cola se llena, el hilo de la petición procesa su tramo
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("geofence-batch-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "sensorScoringExecutor")
+    public ThreadPoolTaskExecutor sensorScoringExecutor(
+            @Value("${attendance.sensor-scoring.pool-size:2}") int poolSize,
+            @Value("${attendance.sensor-scoring.queue-capacity:2000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        // Análisis de sensores posterior al registro: pool y cola acotados, sin CallerRunsPolicy
+        // para que una cola llena nunca se ejecute en el hilo del escaneo (la tarea se descarta)
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setThreadNamePrefix("sensor-scoring-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -7,36 +7,70 @@ import ec.edu.espe.Asistencia_con_Geofencing.dto.response.AttendanceHistoryRespo
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SyncResultResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.security.CustomUserDetails;
 import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.AttendanceService;
+import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.AttendanceSyncStreamer;
+import ec.edu.espe.Asistencia_con_Geofencing.service.idempotency.IdempotencyStore;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/attendances")
 @RequiredArgsConstructor
 public class AttendanceController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final AttendanceService attendanceService;
+    private final AttendanceSyncStreamer attendanceSyncStreamer;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping("/sync")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<ApiResponse<SyncResultResponse>> syncOfflineAttendances(
             @Valid @RequestBody SyncAttendancesRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        SyncResultResponse response = attendanceService.syncOfflineAttendances(request, userDetails.getId());
+        SyncResultResponse response = idempotencyStore.execute(
+                userDetails.getId(), "attendance-sync", idempotencyKey, request, SyncResultResponse.class,
+                () -> attendanceService.syncOfflineAttendances(request, userDetails.getId()));
         String message = response.getFailedCount() == 0
                 ? "Sincronización completada"
                 : "Sincronización parcial";
         return ResponseEntity.ok(ApiResponse.success(message, response));
     }
 
+    /**
+     * Variante por streaming de /sync: recibe una asistencia offline por línea (NDJSON) y devuelve
+     * el resultado de cada una en cuanto se confirma su tramo, seguido de una línea de resumen.
+     * Sin resumen (timeout o corte), el cliente reenvía desde la última línea de resultado recibida.
+     */
+    @PostMapping(value = "/sync/stream", consumes = NDJSON, produces = NDJSON)
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<StreamingResponseBody> streamOfflineAttendances(
+            @RequestParam UUID deviceId,
+            HttpServletRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        UUID userId = userDetails.getId();
+        // El dispositivo se valida antes de empezar a responder para poder devolver un error normal
+        UUID batchId = attendanceService.startSyncBatch(deviceId, userId);
+        StreamingResponseBody body = out ->
+                attendanceSyncStreamer.stream(batchId, deviceId, userId, request.getInputStream(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @GetMapping("/my-history")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<ApiResponse<AttendanceHistoryResponse>> getMyHistory(
@@ -1,8 +1,10 @@
 package ec.edu.espe.Asistencia_con_Geofencing.controller;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.BatchValidateLocationRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.CreateGeofenceZoneRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.ValidateLocationRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ApiResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.BatchValidateLocationResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.GeofenceZoneResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ValidateLocationResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.service.geofence.GeofenceService;
@@ -44,6 +46,14 @@ public class GeofenceController {
         return ResponseEntity.ok(ApiResponse.success(message, response));
     }
 
+    @PostMapping("/validate/batch")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<ApiResponse<BatchValidateLocationResponse>> validateLocations(
+            @Valid @RequestBody BatchValidateLocationRequest request) {
+        BatchValidateLocationResponse response = geofenceService.validateLocations(request);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @DeleteMapping("/zones/{zoneId}")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<Void>> deleteZone(@PathVariable UUID zoneId) {
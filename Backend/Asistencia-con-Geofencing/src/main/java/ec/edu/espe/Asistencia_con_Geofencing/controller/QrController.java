@@ -8,6 +8,8 @@ import ec.edu.espe.Asistencia_con_Geofencing.dto.response.AttendanceResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.QrTokenResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.security.CustomUserDetails;
 import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.AttendanceService;
+import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.ScanAdmissionControl;
+import ec.edu.espe.Asistencia_con_Geofencing.service.idempotency.IdempotencyStore;
 import ec.edu.espe.Asistencia_con_Geofencing.service.qr.QrService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,8 @@ public class QrController {
 
     private final QrService qrService;
     private final AttendanceService attendanceService;
+    private final IdempotencyStore idempotencyStore;
+    private final ScanAdmissionControl scanAdmissionControl;
 
     @PostMapping("/generate")
     @PreAuthorize("hasRole('TEACHER')")
@@ -37,8 +41,13 @@ public class QrController {
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<ApiResponse<AttendanceResponse>> validateQr(
             @Valid @RequestBody ValidateQrRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        AttendanceResponse response = attendanceService.validateQrAndRegisterAttendance(request, userDetails.getId());
+        AttendanceResponse response = scanAdmissionControl.admit(request.getToken(),
+                () -> idempotencyStore.execute(
+                        userDetails.getId(), "qr-validate", idempotencyKey, request, AttendanceResponse.class,
+                        () -> attendanceService.validateQrAndRegisterAttendance(
+                                request, userDetails.getId(), userDetails.getFullName())));
         return ResponseEntity.ok(ApiResponse.success("Asistencia registrada correctamente", response));
     }
 }
\ No newline at end of file
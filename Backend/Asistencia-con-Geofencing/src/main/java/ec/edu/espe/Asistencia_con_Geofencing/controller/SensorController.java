@@ -1,11 +1,13 @@
 package ec.edu.espe.Asistencia_con_Geofencing.controller;
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventsBatchRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ApiResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.security.CustomUserDetails;
 import ec.edu.espe.Asistencia_con_Geofencing.service.sensor.SensorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -27,7 +29,7 @@ public class SensorController {
             @Valid @RequestBody RegisterSensorEventRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
 
-        UUID eventId =
+        Long eventId =
                 sensorEventService.registerSensorEvent(userDetails.getId(), request);
 
         return ResponseEntity.ok(
@@ -37,4 +39,22 @@ public class SensorController {
                 )
         );
     }
+
+    @PostMapping("/events/batch")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> registerSensorEvents(
+            @Valid @RequestBody RegisterSensorEventsBatchRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        UUID acceptanceId =
+                sensorEventService.registerSensorEvents(userDetails.getId(), request);
+
+        // 202: las lecturas se escriben en segundo plano
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                ApiResponse.success(
+                        "Lecturas de sensores aceptadas",
+                        Map.of("acceptanceId", acceptanceId, "accepted", request.getEvents().size())
+                )
+        );
+    }
 }
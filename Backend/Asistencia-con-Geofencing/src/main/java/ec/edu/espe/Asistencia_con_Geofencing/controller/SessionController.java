@@ -6,6 +6,10 @@ import ec.edu.espe.Asistencia_con_Geofencing.security.CustomUserDetails;
 import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.AttendanceService;
 import ec.edu.espe.Asistencia_con_Geofencing.service.session.SessionService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -96,4 +100,25 @@ public class SessionController {
         List<SessionWithDistanceResponse> sessions = sessionService.getActiveSessionsWithDistances(latitude, longitude);
         return ResponseEntity.ok(ApiResponse.success(sessions));
     }
+
+    @GetMapping("/active-nearby")
+    @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER')")
+    public ResponseEntity<ApiResponse<List<SessionWithDistanceResponse>>> getNearestActiveSessions(
+            @RequestParam
+            @DecimalMin(value = "-90.0", message = "La latitud debe estar entre -90 y 90")
+            @DecimalMax(value = "90.0", message = "La latitud debe estar entre -90 y 90")
+            BigDecimal latitude,
+            @RequestParam
+            @DecimalMin(value = "-180.0", message = "La longitud debe estar entre -180 y 180")
+            @DecimalMax(value = "180.0", message = "La longitud debe estar entre -180 y 180")
+            BigDecimal longitude,
+            @RequestParam(required = false) Double maxDistanceMeters,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "El límite debe estar entre 1 y 100")
+            @Max(value = 100, message = "El límite debe estar entre 1 y 100")
+            int limit) {
+        List<SessionWithDistanceResponse> sessions =
+                sessionService.getNearestActiveSessions(latitude, longitude, maxDistanceMeters, limit);
+        return ResponseEntity.ok(ApiResponse.success(sessions));
+    }
 }
\ No newline at end of file
@@ -1,17 +1,22 @@
 package ec.edu.espe.Asistencia_con_Geofencing.controller;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ApiResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.DashboardResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SessionStatisticsResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
 import ec.edu.espe.Asistencia_con_Geofencing.security.CustomUserDetails;
 import ec.edu.espe.Asistencia_con_Geofencing.service.dashboard.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -37,6 +42,18 @@ public class StatisticsController {
 		return ResponseEntity.ok(ApiResponse.success(response));
 	}
 
+	@GetMapping("/teacher/attendance-series")
+	@PreAuthorize("hasRole('TEACHER')")
+	public ResponseEntity<ApiResponse<List<AttendanceSeriesPoint>>> getTeacherAttendanceSeries(
+			@RequestParam(defaultValue = "MONTH") TimeGranularity granularity,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@AuthenticationPrincipal CustomUserDetails userDetails) {
+		List<AttendanceSeriesPoint> response =
+				dashboardService.getTeacherAttendanceSeries(userDetails.getId(), granularity, from, to);
+		return ResponseEntity.ok(ApiResponse.success(response));
+	}
+
 	@GetMapping("/session/{id}")
 	@PreAuthorize("hasRole('TEACHER')")
 	public ResponseEntity<ApiResponse<SessionStatisticsResponse>> getSessionStatistics(
@@ -0,0 +1,20 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resultado de una inserción idempotente: la fila nueva o la asistencia que ya existía
+ * para el mismo (sesión, estudiante).
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceInsertResult {
+
+    private final UUID attendanceId;
+    private final LocalDateTime serverTime;
+    private final boolean inserted;
+}
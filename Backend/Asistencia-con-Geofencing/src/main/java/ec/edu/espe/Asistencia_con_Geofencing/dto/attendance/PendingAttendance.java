@@ -0,0 +1,54 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.Attendance;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila de asistencia ya validada, lista para insertarse por JDBC.
+ * El ID y la hora del servidor se asignan antes de encolarla.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class PendingAttendance {
+
+    private final UUID id;
+    private final UUID sessionId;
+    private final UUID studentId;
+    private final LocalDateTime deviceTime;
+    private final LocalDateTime serverTime;
+    private final BigDecimal latitude;
+    private final BigDecimal longitude;
+    private final boolean withinGeofence;
+    private final String sensorStatus;
+    private final Integer trustScore;
+    private final boolean synced;
+    private final UUID sourceDeviceId;
+    private final UUID syncBatchId;
+    private final String clientTempId;
+
+    public static PendingAttendance from(Attendance attendance) {
+        return PendingAttendance.builder()
+                .id(UUID.randomUUID())
+                .sessionId(attendance.getSession().getId())
+                .studentId(attendance.getStudent().getId())
+                .deviceTime(attendance.getDeviceTime())
+                .serverTime(LocalDateTime.now())
+                .latitude(attendance.getLatitude())
+                .longitude(attendance.getLongitude())
+                .withinGeofence(Boolean.TRUE.equals(attendance.getWithinGeofence()))
+                .sensorStatus(attendance.getSensorStatus())
+                .trustScore(attendance.getTrustScore())
+                .synced(Boolean.TRUE.equals(attendance.getIsSynced()))
+                .sourceDeviceId(attendance.getSourceDevice() != null ? attendance.getSourceDevice().getId() : null)
+                .syncBatchId(attendance.getSyncBatch() != null ? attendance.getSyncBatch().getId() : null)
+                .clientTempId(attendance.getClientTempId())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.attendance;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección plana de token → sesión → geocerca usada para validar un escaneo.
+ * Se obtiene con una sola consulta, sin cargar entidades ni recorrer asociaciones perezosas.
+ * Para tokens firmados no hay fila en {@code qr_tokens}, así que {@code token}, {@code qrTokenId}
+ * y {@code tokenExpiresAt} quedan en null.
+ */
+@Getter
+@AllArgsConstructor
+public class QrScanTarget {
+
+    private final String token;
+    private final UUID qrTokenId;
+    private final LocalDateTime tokenExpiresAt;
+    private final UUID sessionId;
+    private final Boolean sessionActive;
+    private final LocalDateTime sessionEndTime;
+    private final UUID geofenceId;
+    private final String geofenceName;
+    private final BigDecimal geofenceLatitude;
+    private final BigDecimal geofenceLongitude;
+    private final Integer radiusMeters;
+    private final byte[] polygonVertices;
+
+    public QrScanTarget(UUID sessionId, Boolean sessionActive, LocalDateTime sessionEndTime,
+                        UUID geofenceId, String geofenceName, BigDecimal geofenceLatitude,
+                        BigDecimal geofenceLongitude, Integer radiusMeters, byte[] polygonVertices) {
+        this(null, null, null, sessionId, sessionActive, sessionEndTime, geofenceId, geofenceName,
+                geofenceLatitude, geofenceLongitude, radiusMeters, polygonVertices);
+    }
+}
@@ -0,0 +1,18 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Asistencias de un periodo de una serie temporal; {@code periodStart} es el primer día del día,
+ * semana o mes.
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceSeriesPoint {
+
+    private final LocalDate periodStart;
+    private final Long attendances;
+}
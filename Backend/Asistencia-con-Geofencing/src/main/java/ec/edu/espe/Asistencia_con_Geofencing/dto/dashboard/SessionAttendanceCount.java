@@ -0,0 +1,23 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección de una sesión con el número de asistencias registradas, leído del contador de
+ * {@code session_statistics} sin recorrer ni cargar las asistencias (0 si la sesión aún no tiene fila).
+ */
+@Getter
+@AllArgsConstructor
+public class SessionAttendanceCount {
+
+    private final UUID sessionId;
+    private final String sessionName;
+    private final String zoneName;
+    private final LocalDateTime startTime;
+    private final Boolean active;
+    private final Integer attendances;
+}
@@ -8,6 +8,14 @@ import java.time.Duration;
 public class AttendanceMapper {
 
     public static AttendanceResponse mapToResponse(Attendance attendance) {
+        return mapToResponse(attendance, attendance.getStudent().getFullName());
+    }
+
+    /**
+     * Variante para asistencias recién insertadas cuyo estudiante es una referencia sin inicializar:
+     * el nombre se recibe del llamador para no disparar su carga.
+     */
+    public static AttendanceResponse mapToResponse(Attendance attendance, String studentName) {
         Duration syncDelay = null;
         String syncDelayStr = "N/A";
         
@@ -20,7 +28,7 @@ public class AttendanceMapper {
                 .attendanceId(attendance.getId())
                 .sessionId(attendance.getSession().getId())
                 .studentId(attendance.getStudent().getId())
-                .studentName(attendance.getStudent().getFullName())
+                .studentName(studentName)
                 .deviceTime(attendance.getDeviceTime())
                 .serverTime(attendance.getServerTime())
                 .withinGeofence(attendance.getWithinGeofence())
@@ -2,8 +2,12 @@ package ec.edu.espe.Asistencia_con_Geofencing.dto.mapper;
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.GeofenceZoneResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoPolygon;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class GeofenceMapper {
 
@@ -14,6 +18,18 @@ public class GeofenceMapper {
                 .latitude(zone.getLatitude())
                 .longitude(zone.getLongitude())
                 .radiusMeters(zone.getRadiusMeters())
+                .vertices(toVertices(zone.getPolygon()))
                 .build();
     }
+
+    private static List<double[]> toVertices(GeoPolygon polygon) {
+        if (polygon == null) {
+            return null;
+        }
+        List<double[]> vertices = new ArrayList<>(polygon.vertexCount());
+        for (int i = 0; i < polygon.vertexCount(); i++) {
+            vertices.add(new double[]{polygon.latitude(i), polygon.longitude(i)});
+        }
+        return vertices;
+    }
 }
@@ -0,0 +1,39 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.request;
+
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoDistance;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Puntos a validar en formato columnar: la posición i de cada arreglo corresponde al mismo punto.
+ */
+@Data
+public class BatchValidateLocationRequest {
+    @NotNull(message = "Las latitudes son requeridas")
+    @Size(min = 1, max = 10000, message = "Se pueden validar entre 1 y 10000 puntos por petición")
+    private double[] latitudes;
+
+    @NotNull(message = "Las longitudes son requeridas")
+    @Size(min = 1, max = 10000, message = "Se pueden validar entre 1 y 10000 puntos por petición")
+    private double[] longitudes;
+
+    @AssertTrue(message = "Las latitudes y longitudes deben tener la misma cantidad de elementos")
+    public boolean isSameLength() {
+        return latitudes == null || longitudes == null || latitudes.length == longitudes.length;
+    }
+
+    @AssertTrue(message = "Las latitudes deben estar entre -90 y 90 y las longitudes entre -180 y 180")
+    public boolean isWithinRange() {
+        if (latitudes == null || longitudes == null || latitudes.length != longitudes.length) {
+            return true;
+        }
+        for (int i = 0; i < latitudes.length; i++) {
+            if (!GeoDistance.isValidCoordinate(latitudes[i], longitudes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,23 +1,37 @@
 package ec.edu.espe.Asistencia_con_Geofencing.dto.request;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 public class CreateGeofenceZoneRequest {
     @NotBlank(message = "El nombre es requerido")
     private String name;
 
-    @NotNull(message = "La latitud es requerida")
+    // Latitud, longitud y radio son requeridos en zonas circulares; en poligonales se calculan
     private BigDecimal latitude;
 
-    @NotNull(message = "La longitud es requerida")
     private BigDecimal longitude;
 
-    @NotNull(message = "El radio es requerido")
     @Positive(message = "El radio debe ser positivo")
     private Integer radiusMeters;
+
+    @Valid
+    @Size(min = 3, max = 2000, message = "El polígono debe tener entre 3 y 2000 vértices")
+    private List<Vertex> vertices;
+
+    @Data
+    public static class Vertex {
+        @NotNull(message = "La latitud del vértice es requerida")
+        private BigDecimal latitude;
+
+        @NotNull(message = "La longitud del vértice es requerida")
+        private BigDecimal longitude;
+    }
 }
\ No newline at end of file
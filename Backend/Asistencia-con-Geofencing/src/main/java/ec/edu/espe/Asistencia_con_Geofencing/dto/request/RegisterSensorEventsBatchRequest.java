@@ -0,0 +1,15 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RegisterSensorEventsBatchRequest {
+    @NotNull(message = "Las lecturas son requeridas")
+    @Size(min = 1, max = 500, message = "Se pueden registrar entre 1 y 500 lecturas por petición")
+    private List<@Valid RegisterSensorEventRequest> events;
+}
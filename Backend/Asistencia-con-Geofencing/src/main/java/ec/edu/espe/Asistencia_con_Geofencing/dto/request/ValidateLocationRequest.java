@@ -1,5 +1,7 @@
 package ec.edu.espe.Asistencia_con_Geofencing.dto.request;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -7,8 +9,12 @@ import java.math.BigDecimal;
 @Data
 public class ValidateLocationRequest {
     @NotNull(message = "La latitud es requerida")
+    @DecimalMin(value = "-90.0", message = "La latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "La latitud debe estar entre -90 y 90")
     private BigDecimal latitude;
 
     @NotNull(message = "La longitud es requerida")
+    @DecimalMin(value = "-180.0", message = "La longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "La longitud debe estar entre -180 y 180")
     private BigDecimal longitude;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado columnar de una validación por lotes. Las zonas se listan una sola vez en
+ * {@code zoneIds}/{@code zoneNames}; para el punto i, {@code nearestZone[i]} es la posición de su
+ * zona más cercana en esas listas (-1 si no hay zonas), {@code distance[i]} la distancia en metros a
+ * su centro (-1 si no hay zonas) e {@code inside[i]} indica si el punto está dentro de alguna zona.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidateLocationResponse {
+    private int count;
+    private List<UUID> zoneIds;
+    private List<String> zoneNames;
+    private int[] nearestZone;
+    private double[] distance;
+    private boolean[] inside;
+}
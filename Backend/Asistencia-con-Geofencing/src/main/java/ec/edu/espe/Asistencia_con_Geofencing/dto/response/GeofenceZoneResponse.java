@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -17,4 +18,5 @@ public class GeofenceZoneResponse {
     private BigDecimal latitude;
     private BigDecimal longitude;
     private Integer radiusMeters;
+    private List<double[]> vertices; // [latitud, longitud]; null en zonas circulares
 }
@@ -0,0 +1,28 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lectura de sensor ya decodificada, lista para insertarse por JDBC.
+ * La hora del servidor se asigna al aceptarla; el ID lo genera la base de datos.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class PendingSensorEvent {
+
+    private final UUID userId;
+    private final UUID sessionId;
+    private final UUID attendanceId;
+    private final SensorType type;
+    private final Float azimuth;
+    private final Boolean near;
+    private final LocalDateTime deviceTime;
+    private final LocalDateTime serverTime;
+}
@@ -0,0 +1,28 @@
+package ec.edu.espe.Asistencia_con_Geofencing.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección plana de una sesión activa con su docente y geocerca, usada para cargar el índice
+ * de sesiones cercanas con una sola consulta.
+ */
+@Getter
+@AllArgsConstructor
+public class ActiveSessionLocation {
+
+    private final UUID sessionId;
+    private final String name;
+    private final String teacherName;
+    private final String zoneName;
+    private final BigDecimal zoneLatitude;
+    private final BigDecimal zoneLongitude;
+    private final Integer radiusMeters;
+    private final byte[] polygonVertices;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+}
@@ -10,7 +10,7 @@ public class AlreadyRegisteredException extends RuntimeException {
     private final LocalDateTime registeredAt;
 
     public AlreadyRegisteredException(String message, UUID attendanceId, LocalDateTime registeredAt) {
-        super(message);
+        super(message, null, false, false);
         this.attendanceId = attendanceId;
         this.registeredAt = registeredAt;
     }
@@ -0,0 +1,8 @@
+package ec.edu.espe.Asistencia_con_Geofencing.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
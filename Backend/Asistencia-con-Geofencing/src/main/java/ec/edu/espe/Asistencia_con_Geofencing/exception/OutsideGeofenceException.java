@@ -9,7 +9,7 @@ public class OutsideGeofenceException extends RuntimeException {
     private final Integer maxRadius;
 
     public OutsideGeofenceException(String message, String requiredZone, Double distance, Integer maxRadius) {
-        super(message);
+        super(message, null, false, false);
         this.requiredZone = requiredZone;
         this.distance = distance;
         this.maxRadius = maxRadius;
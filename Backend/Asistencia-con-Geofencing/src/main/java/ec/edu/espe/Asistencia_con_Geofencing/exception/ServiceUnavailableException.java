@@ -0,0 +1,8 @@
+package ec.edu.espe.Asistencia_con_Geofencing.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
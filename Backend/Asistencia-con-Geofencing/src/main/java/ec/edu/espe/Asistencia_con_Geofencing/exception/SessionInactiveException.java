@@ -8,7 +8,7 @@ public class SessionInactiveException extends RuntimeException {
     private final LocalDateTime endTime;
 
     public SessionInactiveException(String message, LocalDateTime endTime) {
-        super(message);
+        super(message, null, false, false);
         this.endTime = endTime;
     }
 }
\ No newline at end of file
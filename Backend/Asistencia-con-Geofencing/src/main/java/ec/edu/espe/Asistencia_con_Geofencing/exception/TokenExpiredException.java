@@ -2,6 +2,6 @@ package ec.edu.espe.Asistencia_con_Geofencing.exception;
 
 public class TokenExpiredException extends RuntimeException {
     public TokenExpiredException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
@@ -15,7 +15,8 @@ import java.util.UUID;
 @Entity
 @Table(
     name = "attendances",
-    uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "student_id"})
+    uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "student_id"}),
+    indexes = @Index(name = "idx_attendances_device_temp_id", columnList = "source_device_id, client_temp_id")
 )
 @Data
 @NoArgsConstructor
@@ -67,6 +68,10 @@ public class Attendance {
     @JoinColumn(name = "sync_batch_id")
     private SyncBatch syncBatch;
 
+    // ID temporal asignado por el cliente offline; permite reanudar una sincronización sin duplicar
+    @Column(name = "client_temp_id", length = 100)
+    private String clientTempId;
+
     @OneToMany(mappedBy = "attendance", cascade = CascadeType.ALL)
     private Set<SensorEvent> sensorEvents = new HashSet<>();
 }
@@ -0,0 +1,49 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Asistencias de una sesión por día (según la hora del dispositivo). Se incrementa en la misma
+ * sentencia que inserta las asistencias (ver {@code AttendanceRepositoryCustomImpl}); las series
+ * por semana o mes se agregan sobre estas filas, sin leer asistencias.
+ */
+@Entity
+@Table(
+    name = "attendance_daily_counts",
+    indexes = @Index(name = "idx_attendance_daily_counts_teacher_date", columnList = "teacher_id, attendance_date")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceDailyCount {
+
+    @EmbeddedId
+    private Key id;
+
+    // Docente de la sesión, copiado para filtrar por docente sin unir con las sesiones
+    @Column(name = "teacher_id", nullable = false)
+    private UUID teacherId;
+
+    @Column(nullable = false)
+    private int attendances;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "session_id")
+        private UUID sessionId;
+
+        @Column(name = "attendance_date")
+        private LocalDate attendanceDate;
+    }
+}
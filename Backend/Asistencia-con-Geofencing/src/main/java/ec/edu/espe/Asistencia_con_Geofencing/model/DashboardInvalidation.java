@@ -0,0 +1,35 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Registro de un cambio que invalida el dashboard en caché de un usuario. Se escribe en la misma
+ * transacción que el cambio y cada nodo lo lee periódicamente para descartar su copia local (ver
+ * {@code DashboardInvalidations}).
+ */
+@Entity
+@Table(
+    name = "dashboard_invalidations",
+    indexes = @Index(name = "idx_dashboard_invalidations_created_at", columnList = "created_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,9 +1,17 @@
 package ec.edu.espe.Asistencia_con_Geofencing.model;
 
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoDistance;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoPolygon;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -33,6 +41,58 @@ public class GeofenceZone {
     @Column(name = "radius_meters", nullable = false)
     private Integer radiusMeters;
 
+    /**
+     * Vértices codificados con {@link GeoPolygon}; null en zonas circulares. En zonas poligonales,
+     * latitud, longitud y radio describen el círculo envolvente.
+     */
+    @Column(name = "polygon_vertices")
+    private byte[] polygonVertices;
+
     @OneToMany(mappedBy = "geofence", cascade = CascadeType.ALL)
     private Set<AttendanceSession> sessions = new HashSet<>();
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private GeoDistance.Center center;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private GeoPolygon polygon;
+
+    /**
+     * Centro con radianes y cosenos precalculados; se recalcula si cambian las coordenadas.
+     */
+    public GeoDistance.Center getCenter() {
+        GeoDistance.Center cached = center;
+        if (cached == null || !cached.isAt(latitude.doubleValue(), longitude.doubleValue())) {
+            cached = GeoDistance.Center.of(latitude.doubleValue(), longitude.doubleValue());
+            center = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Polígono decodificado, o null si la zona es circular; se decodifica una sola vez.
+     */
+    public GeoPolygon getPolygon() {
+        if (polygonVertices == null) {
+            return null;
+        }
+        GeoPolygon cached = polygon;
+        if (cached == null || !cached.isDecodedFrom(polygonVertices)) {
+            cached = GeoPolygon.decode(polygonVertices);
+            polygon = cached;
+        }
+        return cached;
+    }
+
+    public GeofenceShape getShape() {
+        return new GeofenceShape(getCenter(), radiusMeters, getPolygon());
+    }
 }
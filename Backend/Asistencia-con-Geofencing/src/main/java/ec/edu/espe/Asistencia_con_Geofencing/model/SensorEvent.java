@@ -8,18 +8,28 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
+/**
+ * Lectura cruda de sensor en columnas de ancho fijo: el azimut de la brújula y el estado del
+ * sensor de proximidad se guardan tipados en lugar del JSON recibido. La tabla solo recibe INSERT;
+ * las lecturas antiguas se resumen en {@link SensorSummary} y se eliminan.
+ */
 @Entity
-@Table(name = "sensor_events")
+@Table(
+    name = "sensor_readings",
+    indexes = {
+        @Index(name = "idx_sensor_readings_attendance", columnList = "attendance_id"),
+        @Index(name = "idx_sensor_readings_device_time", columnList = "device_time")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SensorEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private UUID id;
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -33,12 +43,17 @@ public class SensorEvent {
     @JoinColumn(name = "attendance_id")
     private Attendance attendance;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false, length = 20)
+    // Ordinal en SMALLINT: agregar tipos nuevos solo al final de SensorType
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "SMALLINT")
     private SensorType type;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String value;
+    // Solo COMPASS; null si la lectura no traía azimut
+    @Column(columnDefinition = "REAL")
+    private Float azimuth;
+
+    // Solo PROXIMITY; null si la lectura no traía el campo near
+    private Boolean near;
 
     @Column(name = "device_time", nullable = false)
     private LocalDateTime deviceTime;
@@ -0,0 +1,48 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resumen por asistencia de las lecturas de sensores ya eliminadas por la retención.
+ */
+@Entity
+@Table(name = "sensor_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorSummary {
+
+    @Id
+    @Column(name = "attendance_id")
+    private UUID attendanceId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "session_id")
+    private UUID sessionId;
+
+    @Column(name = "compass_count", nullable = false)
+    private Integer compassCount;
+
+    @Column(name = "azimuth_variation", columnDefinition = "REAL")
+    private Float azimuthVariation;
+
+    @Column(name = "proximity_count", nullable = false)
+    private Integer proximityCount;
+
+    @Column(name = "near_count", nullable = false)
+    private Integer nearCount;
+
+    @Column(name = "first_device_time")
+    private LocalDateTime firstDeviceTime;
+
+    @Column(name = "last_device_time")
+    private LocalDateTime lastDeviceTime;
+}
@@ -0,0 +1,57 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Contadores de asistencia de una sesión. Se incrementan en la misma sentencia que inserta las
+ * asistencias (ver {@code AttendanceRepositoryCustomImpl}), de modo que leer las estadísticas de
+ * una sesión es una búsqueda por clave primaria. Una sesión sin asistencias no tiene fila.
+ */
+@Entity
+@Table(name = "session_statistics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionStatistics {
+
+    @Id
+    @Column(name = "session_id")
+    private UUID sessionId;
+
+    @Column(name = "total_attendances", nullable = false)
+    private int totalAttendances;
+
+    // Registradas antes de 5 minutos desde el inicio (estadísticas de sesión)
+    @Column(name = "on_time_count", nullable = false)
+    private int onTimeCount;
+
+    // Registradas dentro de los primeros 15 minutos (reporte PDF)
+    @Column(name = "on_time_report_count", nullable = false)
+    private int onTimeReportCount;
+
+    @Column(name = "within_geofence_count", nullable = false)
+    private int withinGeofenceCount;
+
+    // Sincronizadas más de 1 minuto después de la hora del dispositivo
+    @Column(name = "offline_synced_count", nullable = false)
+    private int offlineSyncedCount;
+
+    // Suma de (hora del servidor - hora del dispositivo) en segundos
+    @Column(name = "sync_delay_seconds", nullable = false)
+    private long syncDelaySeconds;
+
+    public static SessionStatistics empty(UUID sessionId) {
+        SessionStatistics statistics = new SessionStatistics();
+        statistics.setSessionId(sessionId);
+        return statistics;
+    }
+
+    public double averageSyncDelaySeconds() {
+        return totalAttendances > 0 ? (double) syncDelaySeconds / totalAttendances : 0.0;
+    }
+}
@@ -0,0 +1,48 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Contadores de asistencia de un estudiante. {@code attendedSessions} se incrementa al insertar
+ * sus asistencias y {@code eligibleSessions} al finalizar una sesión a la que no asistió (ver
+ * {@code StudentStatisticsRepositoryCustomImpl}), de modo que la tasa de asistencia es una búsqueda
+ * por clave primaria. Un estudiante sin asistencias ni sesiones finalizadas no tiene fila.
+ */
+@Entity
+@Table(name = "student_statistics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentStatistics {
+
+    @Id
+    @Column(name = "student_id")
+    private UUID studentId;
+
+    @Column(name = "attended_sessions", nullable = false)
+    private int attendedSessions;
+
+    // Sesiones finalizadas desde su registro más las sesiones activas a las que ya asistió
+    @Column(name = "eligible_sessions", nullable = false)
+    private int eligibleSessions;
+
+    // Hora del servidor de la última asistencia sincronizada
+    @Column(name = "last_sync_at")
+    private LocalDateTime lastSyncAt;
+
+    public static StudentStatistics empty(UUID studentId) {
+        StudentStatistics statistics = new StudentStatistics();
+        statistics.setStudentId(studentId);
+        return statistics;
+    }
+
+    public double attendanceRate() {
+        return eligibleSessions > 0 ? (double) attendedSessions / eligibleSessions * 100 : 0.0;
+    }
+}
@@ -0,0 +1,10 @@
+package ec.edu.espe.Asistencia_con_Geofencing.model.enums;
+
+/**
+ * Granularidad de las series temporales de asistencia. Las semanas empiezan el lunes (ISO).
+ */
+public enum TimeGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,9 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AttendanceDailyCountRepository extends JpaRepository<AttendanceDailyCount, AttendanceDailyCount.Key>, AttendanceDailyCountRepositoryCustom {
+}
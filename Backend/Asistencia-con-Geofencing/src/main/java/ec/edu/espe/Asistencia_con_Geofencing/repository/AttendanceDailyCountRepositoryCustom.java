@@ -0,0 +1,24 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface AttendanceDailyCountRepositoryCustom {
+
+    /**
+     * Serie de asistencias de las sesiones de un docente, ordenada por periodo. Los límites son
+     * opcionales e inclusivos y se aplican por día.
+     */
+    List<AttendanceSeriesPoint> findSeries(UUID teacherId, TimeGranularity granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Reconstruye todos los conteos diarios a partir de las asistencias.
+     *
+     * @return filas de conteo escritas
+     */
+    int rebuildAll();
+}
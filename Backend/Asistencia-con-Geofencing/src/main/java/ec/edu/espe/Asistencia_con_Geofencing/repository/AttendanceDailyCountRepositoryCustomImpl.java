@@ -0,0 +1,71 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AttendanceDailyCountRepositoryCustomImpl implements AttendanceDailyCountRepositoryCustom {
+
+    static final String COLUMNS = "session_id, attendance_date, teacher_id, attendances";
+
+    /**
+     * Conteo por sesión y día sobre asistencias {@code x} unidas a su sesión {@code s}.
+     */
+    static final String AGGREGATES = """
+            SELECT x.session_id, CAST(x.device_time AS DATE), s.teacher_id, COUNT(*)
+            FROM %s x JOIN attendance_sessions s ON s.id = x.session_id
+            GROUP BY x.session_id, CAST(x.device_time AS DATE), s.teacher_id
+            ORDER BY x.session_id, CAST(x.device_time AS DATE)
+            """;
+
+    private static final String REBUILD = "INSERT INTO attendance_daily_counts (" + COLUMNS + ")\n"
+            + AGGREGATES.formatted("attendances")
+            + "ON CONFLICT (session_id, attendance_date) DO UPDATE SET attendances = EXCLUDED.attendances";
+
+    private static final String SERIES = """
+            SELECT CAST(date_trunc(?, CAST(attendance_date AS TIMESTAMP)) AS DATE) AS period_start,
+                   SUM(attendances) AS attendances
+            FROM attendance_daily_counts
+            WHERE teacher_id = ?%s
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AttendanceSeriesPoint> findSeries(UUID teacherId, TimeGranularity granularity,
+                                                  LocalDate from, LocalDate to) {
+        StringBuilder range = new StringBuilder();
+        List<Object> args = new ArrayList<>(4);
+        args.add(granularity.name().toLowerCase(Locale.ROOT));
+        args.add(teacherId);
+        if (from != null) {
+            range.append(" AND attendance_date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            range.append(" AND attendance_date <= ?");
+            args.add(to);
+        }
+
+        return jdbcTemplate.query(SERIES.formatted(range), (rs, rowNum) -> new AttendanceSeriesPoint(
+                        rs.getObject("period_start", LocalDate.class),
+                        rs.getLong("attendances")),
+                args.toArray());
+    }
+
+    @Override
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM attendance_daily_counts");
+        return jdbcTemplate.update(REBUILD);
+    }
+}
@@ -4,21 +4,27 @@ import ec.edu.espe.Asistencia_con_Geofencing.model.Attendance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AttendanceRepository extends JpaRepository<Attendance, UUID> {
+public interface AttendanceRepository extends JpaRepository<Attendance, UUID>, AttendanceRepositoryCustom {
     Optional<Attendance> findBySessionIdAndStudentId(UUID sessionId, UUID studentId);
 
     List<Attendance> findBySessionId(UUID sessionId);
 
+    List<Attendance> findByStudentIdAndSessionIdIn(UUID studentId, Collection<UUID> sessionIds);
+
+    List<Attendance> findBySourceDeviceIdAndClientTempIdIn(UUID sourceDeviceId, Collection<String> clientTempIds);
+
     List<Attendance> findByStudentIdAndDeviceTimeBetween(
             UUID studentId,
             LocalDateTime startDate,
@@ -32,4 +38,11 @@ public interface AttendanceRepository extends JpaRepository<Attendance, UUID> {
 
     @Query("SELECT COUNT(DISTINCT a.session.id) FROM Attendance a WHERE a.student.id = :studentId")
     Long countAttendedSessionsByStudentId(UUID studentId);
-}
\ No newline at end of file
+
+    @Query("SELECT COUNT(DISTINCT a.student.id) FROM Attendance a WHERE a.session.teacher.id = :teacherId")
+    long countDistinctStudentsByTeacherId(UUID teacherId);
+
+    @Query("UPDATE Attendance a SET a.trustScore = :trustScore, a.sensorStatus = :sensorStatus WHERE a.id = :attendanceId")
+    @Modifying
+    int updateTrustScore(UUID attendanceId, Integer trustScore, String sensorStatus);
+}
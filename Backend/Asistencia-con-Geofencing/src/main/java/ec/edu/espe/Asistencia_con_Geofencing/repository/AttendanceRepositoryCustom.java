@@ -0,0 +1,29 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.AttendanceInsertResult;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface AttendanceRepositoryCustom {
+
+    /**
+     * Inserta la asistencia si el estudiante no la tiene registrada en la sesión.
+     * En una sola sentencia devuelve la fila nueva o el ID y la hora de la existente.
+     * Puede devolver vacío si otra transacción confirmó la fila durante la sentencia.
+     * El dispositivo de origen se descarta si no pertenece al estudiante.
+     * Las estadísticas de la sesión se incrementan en la misma sentencia.
+     */
+    Optional<AttendanceInsertResult> insertIfAbsent(PendingAttendance row);
+
+    /**
+     * Inserta las asistencias en una sola sentencia multi-fila, omitiendo las que ya existen,
+     * e incrementa las estadísticas de sus sesiones en la misma sentencia.
+     *
+     * @return IDs de las filas efectivamente insertadas
+     */
+    Set<UUID> insertAllIfAbsent(List<PendingAttendance> rows);
+}
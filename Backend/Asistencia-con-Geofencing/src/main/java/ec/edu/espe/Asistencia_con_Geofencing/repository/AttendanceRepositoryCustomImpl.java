@@ -0,0 +1,149 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.AttendanceInsertResult;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AttendanceRepositoryCustomImpl implements AttendanceRepositoryCustom {
+
+    private static final String INSERT_COLUMNS = """
+            INSERT INTO attendances (id, session_id, student_id, device_time, server_time, latitude, longitude,
+                                     within_geofence, sensor_status, trust_score, is_synced, source_device_id, sync_batch_id,
+                                     client_temp_id)
+            VALUES\s""";
+    // El dispositivo de origen solo se guarda si pertenece al estudiante, sin consultarlo antes
+    private static final String ROW_PLACEHOLDERS =
+            "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, (SELECT d.id FROM devices d WHERE d.id = ? AND d.user_id = ?), ?, ?)";
+    private static final String ON_CONFLICT = " ON CONFLICT (session_id, student_id) DO NOTHING";
+    private static final int PARAMS_PER_ROW = 15;
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String RETURNING =
+            " RETURNING id, session_id, student_id, device_time, server_time, within_geofence, is_synced";
+
+    // Incrementa session_statistics, student_statistics y attendance_daily_counts con las filas
+    // efectivamente insertadas, e invalida los dashboards del estudiante y del docente, en la misma sentencia.
+    // El estado de la sesión se lee con FOR SHARE: si la sesión se está finalizando (bloqueada por
+    // endSession), la sentencia espera y la ve inactiva, así no se cuenta como elegible dos veces
+    private static final String COUNT_INSERTED = """
+            , locked_sessions AS (SELECT s.id, s.active FROM attendance_sessions s
+                WHERE s.id IN (SELECT session_id FROM inserted)
+                ORDER BY s.id
+                FOR SHARE)
+            """ + ", counted AS (INSERT INTO session_statistics ("
+            + SessionStatisticsRepositoryCustomImpl.COLUMNS + ")\n"
+            + "SELECT " + SessionStatisticsRepositoryCustomImpl.AGGREGATES + """
+
+                FROM inserted x JOIN attendance_sessions s ON s.id = x.session_id
+                GROUP BY x.session_id
+                ORDER BY x.session_id
+                ON CONFLICT (session_id) DO UPDATE SET
+                    total_attendances = session_statistics.total_attendances + EXCLUDED.total_attendances,
+                    on_time_count = session_statistics.on_time_count + EXCLUDED.on_time_count,
+                    on_time_report_count = session_statistics.on_time_report_count + EXCLUDED.on_time_report_count,
+                    within_geofence_count = session_statistics.within_geofence_count + EXCLUDED.within_geofence_count,
+                    offline_synced_count = session_statistics.offline_synced_count + EXCLUDED.offline_synced_count,
+                    sync_delay_seconds = session_statistics.sync_delay_seconds + EXCLUDED.sync_delay_seconds),
+            student_counted AS (INSERT INTO student_statistics (""" + StudentStatisticsRepositoryCustomImpl.COLUMNS + """
+            )
+                SELECT x.student_id,
+                       COUNT(*),
+                       -- Una sesión ya finalizada se contó como elegible al finalizar
+                       COUNT(*) FILTER (WHERE s.active),
+                       MAX(x.server_time) FILTER (WHERE x.is_synced)
+                FROM inserted x JOIN locked_sessions s ON s.id = x.session_id
+                GROUP BY x.student_id
+                ORDER BY x.student_id
+                ON CONFLICT (student_id) DO UPDATE SET
+                    attended_sessions = student_statistics.attended_sessions + EXCLUDED.attended_sessions,
+                    eligible_sessions = student_statistics.eligible_sessions + EXCLUDED.eligible_sessions,
+                    last_sync_at = GREATEST(student_statistics.last_sync_at, EXCLUDED.last_sync_at)),
+            day_counted AS (INSERT INTO attendance_daily_counts (""" + AttendanceDailyCountRepositoryCustomImpl.COLUMNS + ")\n"
+            + AttendanceDailyCountRepositoryCustomImpl.AGGREGATES.formatted("inserted") + """
+                ON CONFLICT (session_id, attendance_date) DO UPDATE SET
+                    attendances = attendance_daily_counts.attendances + EXCLUDED.attendances),
+            invalidated AS (INSERT INTO dashboard_invalidations (user_id, created_at)
+                SELECT x.student_id, LOCALTIMESTAMP FROM inserted x
+                UNION
+                SELECT s.teacher_id, LOCALTIMESTAMP FROM inserted x JOIN attendance_sessions s ON s.id = x.session_id)
+            """;
+
+    private static final String INSERT_IF_ABSENT = "WITH inserted AS (" + INSERT_COLUMNS + ROW_PLACEHOLDERS + ON_CONFLICT
+            + RETURNING + ")" + COUNT_INSERTED + """
+            SELECT id, server_time, TRUE AS inserted FROM inserted
+            UNION ALL
+            SELECT a.id, a.server_time, FALSE FROM attendances a
+            WHERE a.session_id = ? AND a.student_id = ? AND NOT EXISTS (SELECT 1 FROM inserted)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<AttendanceInsertResult> insertIfAbsent(PendingAttendance row) {
+        List<Object> args = new ArrayList<>(PARAMS_PER_ROW + 2);
+        addRow(args, row);
+        args.add(row.getSessionId());
+        args.add(row.getStudentId());
+
+        return jdbcTemplate.query(INSERT_IF_ABSENT, (rs, rowNum) -> new AttendanceInsertResult(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("server_time", LocalDateTime.class),
+                        rs.getBoolean("inserted")),
+                args.toArray()).stream().findFirst();
+    }
+
+    @Override
+    public Set<UUID> insertAllIfAbsent(List<PendingAttendance> rows) {
+        Set<UUID> inserted = new HashSet<>();
+        // Por sentencia: PostgreSQL admite como máximo 65535 parámetros
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            inserted.addAll(insertChunk(rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT))));
+        }
+        return inserted;
+    }
+
+    private List<UUID> insertChunk(List<PendingAttendance> rows) {
+        StringBuilder sql = new StringBuilder("WITH inserted AS (").append(INSERT_COLUMNS);
+        List<Object> args = new ArrayList<>(rows.size() * PARAMS_PER_ROW);
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            addRow(args, rows.get(i));
+        }
+        sql.append(ON_CONFLICT).append(RETURNING).append(")").append(COUNT_INSERTED).append(" SELECT id FROM inserted");
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> rs.getObject("id", UUID.class),
+                args.toArray());
+    }
+
+    private void addRow(List<Object> args, PendingAttendance row) {
+        args.add(row.getId());
+        args.add(row.getSessionId());
+        args.add(row.getStudentId());
+        args.add(row.getDeviceTime());
+        args.add(row.getServerTime());
+        args.add(row.getLatitude());
+        args.add(row.getLongitude());
+        args.add(row.isWithinGeofence());
+        args.add(row.getSensorStatus());
+        args.add(row.getTrustScore());
+        args.add(row.isSynced());
+        args.add(row.getSourceDeviceId());
+        args.add(row.getStudentId());
+        args.add(row.getSyncBatchId());
+        args.add(row.getClientTempId());
+    }
+}
@@ -1,12 +1,19 @@
 package ec.edu.espe.Asistencia_con_Geofencing.repository;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.SessionAttendanceCount;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.session.ActiveSessionLocation;
 import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,7 +29,47 @@ public interface AttendanceSessionRepository extends JpaRepository<AttendanceSes
     // Verificar si un profesor ya tiene una sesión activa
     boolean existsByTeacherIdAndActiveTrue(UUID teacherId);
     
+    // Bloquea la sesión hasta el commit; las inserciones de asistencias la leen con FOR SHARE y esperan
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AttendanceSession s WHERE s.id = :sessionId")
+    Optional<AttendanceSession> findByIdForUpdate(UUID sessionId);
+
     // Obtener la sesión activa de un profesor (si existe)
     @Query("SELECT s FROM AttendanceSession s WHERE s.teacher.id = :teacherId AND s.active = true")
     List<AttendanceSession> findActiveSessionByTeacherId(UUID teacherId);
+
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget(
+                s.id, s.active, s.endTime, g.id, g.name, g.latitude, g.longitude, g.radiusMeters, g.polygonVertices)
+            FROM AttendanceSession s JOIN s.geofence g
+            WHERE s.id = :sessionId
+            """)
+    Optional<QrScanTarget> findScanTarget(UUID sessionId);
+
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget(
+                s.id, s.active, s.endTime, g.id, g.name, g.latitude, g.longitude, g.radiusMeters, g.polygonVertices)
+            FROM AttendanceSession s JOIN s.geofence g
+            WHERE s.id IN :sessionIds
+            """)
+    List<QrScanTarget> findScanTargets(Collection<UUID> sessionIds);
+
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.session.ActiveSessionLocation(
+                s.id, s.name, t.fullName, g.name, g.latitude, g.longitude, g.radiusMeters, g.polygonVertices,
+                s.startTime, s.endTime)
+            FROM AttendanceSession s JOIN s.teacher t JOIN s.geofence g
+            WHERE s.active = true
+            """)
+    List<ActiveSessionLocation> findActiveSessionLocations();
+
+    // Sesiones del docente con su número de asistencias (de session_statistics), de la más reciente a la más antigua
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.SessionAttendanceCount(
+                s.id, s.name, g.name, s.startTime, s.active, COALESCE(st.totalAttendances, 0))
+            FROM AttendanceSession s LEFT JOIN s.geofence g LEFT JOIN SessionStatistics st ON st.sessionId = s.id
+            WHERE s.teacher.id = :teacherId
+            ORDER BY s.startTime DESC
+            """)
+    List<SessionAttendanceCount> countAttendancesByTeacherSessions(UUID teacherId);
 }
@@ -0,0 +1,30 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.DashboardInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DashboardInvalidationRepository extends JpaRepository<DashboardInvalidation, Long>, DashboardInvalidationRepositoryCustom {
+
+    /**
+     * Filas posteriores a {@code lastId} más las creadas desde {@code since}, que cubren las de
+     * transacciones confirmadas después de otras con un id mayor.
+     */
+    @Query("SELECT i FROM DashboardInvalidation i WHERE i.id > :lastId OR i.createdAt >= :since ORDER BY i.id")
+    List<DashboardInvalidation> findNewerThan(long lastId, LocalDateTime since);
+
+    @Query("SELECT COALESCE(MAX(i.id), 0) FROM DashboardInvalidation i")
+    long findMaxId();
+
+    @Query("DELETE FROM DashboardInvalidation i WHERE i.createdAt < :before")
+    @Modifying
+    @Transactional
+    int deleteCreatedBefore(LocalDateTime before);
+}
@@ -0,0 +1,18 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface DashboardInvalidationRepositoryCustom {
+
+    /**
+     * Registra una invalidación por usuario con la hora de la base de datos.
+     */
+    void insertAll(Collection<UUID> userIds);
+
+    /**
+     * Hora actual de la base de datos, la misma con la que se registran las invalidaciones.
+     */
+    LocalDateTime databaseNow();
+}
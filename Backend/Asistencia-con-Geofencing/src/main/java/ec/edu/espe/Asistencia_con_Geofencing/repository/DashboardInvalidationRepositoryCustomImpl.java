@@ -0,0 +1,35 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class DashboardInvalidationRepositoryCustomImpl implements DashboardInvalidationRepositoryCustom {
+
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(Collection<UUID> userIds) {
+        List<UUID> ids = new ArrayList<>(userIds);
+        for (int start = 0; start < ids.size(); start += ROWS_PER_STATEMENT) {
+            List<UUID> chunk = ids.subList(start, Math.min(start + ROWS_PER_STATEMENT, ids.size()));
+            String rows = String.join(", ", Collections.nCopies(chunk.size(), "(?, LOCALTIMESTAMP)"));
+            jdbcTemplate.update("INSERT INTO dashboard_invalidations (user_id, created_at) VALUES " + rows,
+                    chunk.toArray());
+        }
+    }
+
+    @Override
+    public LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+    }
+}
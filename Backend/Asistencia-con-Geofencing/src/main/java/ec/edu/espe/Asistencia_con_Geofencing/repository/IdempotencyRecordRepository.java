@@ -0,0 +1,39 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+
+    @Query("""
+            SELECT r FROM IdempotencyRecord r
+            WHERE r.userId = :userId AND r.scope = :scope AND r.idempotencyKey = :idempotencyKey AND r.expiresAt > :now
+            """)
+    Optional<IdempotencyRecord> findActive(UUID userId, String scope, String idempotencyKey, LocalDateTime now);
+
+    // Si dos reintentos concurrentes terminan a la vez, se conserva la primera respuesta
+    @Query(value = """
+            INSERT INTO idempotency_records (id, user_id, scope, idempotency_key, request_hash, response_body,
+                                             created_at, expires_at)
+            VALUES (:id, :userId, :scope, :idempotencyKey, :requestHash, :responseBody, :createdAt, :expiresAt)
+            ON CONFLICT (user_id, scope, idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    @Modifying
+    @Transactional
+    int insertIfAbsent(UUID id, UUID userId, String scope, String idempotencyKey, String requestHash,
+                       String responseBody, LocalDateTime createdAt, LocalDateTime expiresAt);
+
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    @Modifying
+    @Transactional
+    int deleteExpired(LocalDateTime now);
+}
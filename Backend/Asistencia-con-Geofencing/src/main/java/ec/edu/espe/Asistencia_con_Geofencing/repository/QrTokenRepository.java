@@ -1,11 +1,14 @@
 package ec.edu.espe.Asistencia_con_Geofencing.repository;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget;
 import ec.edu.espe.Asistencia_con_Geofencing.model.QrToken;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,6 +18,24 @@ public interface QrTokenRepository extends JpaRepository<QrToken, UUID> {
     @Query("SELECT qt FROM QrToken qt WHERE qt.token = :token AND qt.expiresAt > :now")
     Optional<QrToken> findValidToken(String token, LocalDateTime now);
 
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget(
+                qt.token, qt.id, qt.expiresAt, s.id, s.active, s.endTime,
+                g.id, g.name, g.latitude, g.longitude, g.radiusMeters, g.polygonVertices)
+            FROM QrToken qt JOIN qt.session s JOIN s.geofence g
+            WHERE qt.token = :token AND qt.expiresAt > :now
+            """)
+    Optional<QrScanTarget> findScanTarget(String token, LocalDateTime now);
+
+    @Query("""
+            SELECT new ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget(
+                qt.token, qt.id, qt.expiresAt, s.id, s.active, s.endTime,
+                g.id, g.name, g.latitude, g.longitude, g.radiusMeters, g.polygonVertices)
+            FROM QrToken qt JOIN qt.session s JOIN s.geofence g
+            WHERE qt.token IN :tokens AND qt.expiresAt > :now
+            """)
+    List<QrScanTarget> findScanTargets(Collection<String> tokens, LocalDateTime now);
+
     @Query("UPDATE QrToken qt SET qt.expiresAt = :invalidTime WHERE qt.session.id = :sessionId AND qt.expiresAt > :now")
     @Modifying
     void invalidateSessionTokens(UUID sessionId, LocalDateTime now, LocalDateTime invalidTime);
@@ -3,8 +3,7 @@ package ec.edu.espe.Asistencia_con_Geofencing.repository;
 import ec.edu.espe.Asistencia_con_Geofencing.model.SensorEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.UUID;
 
 @Repository
-public interface SensorEventRepository extends JpaRepository<SensorEvent, UUID> {
+public interface SensorEventRepository extends JpaRepository<SensorEvent, Long>, SensorEventRepositoryCustom {
 }
@@ -0,0 +1,36 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface SensorEventRepositoryCustom {
+
+    /**
+     * Inserta las lecturas en una sola sentencia multi-fila.
+     * La sesión se descarta (queda null) si no existe, para no rechazar el lote completo.
+     *
+     * @return número de filas insertadas
+     */
+    int insertAll(List<PendingSensorEvent> events);
+
+    /**
+     * Asistencias con lecturas registradas antes de {@code cutoff}, hasta {@code limit}.
+     */
+    List<UUID> findAttendanceIdsWithReadingsBefore(LocalDateTime cutoff, int limit);
+
+    /**
+     * Lecturas de las asistencias indicadas, ordenadas por asistencia.
+     */
+    List<PendingSensorEvent> findByAttendanceIds(Collection<UUID> attendanceIds);
+
+    int deleteByAttendanceIds(Collection<UUID> attendanceIds);
+
+    /**
+     * Elimina hasta {@code limit} lecturas sin asistencia anteriores a {@code cutoff}.
+     */
+    int deleteUnlinkedBefore(LocalDateTime cutoff, int limit);
+}
@@ -0,0 +1,112 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class SensorEventRepositoryCustomImpl implements SensorEventRepositoryCustom {
+
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+
+    private static final String INSERT_COLUMNS = """
+            INSERT INTO sensor_readings (user_id, session_id, attendance_id, type, azimuth, near, device_time, server_time)
+            VALUES\s""";
+    private static final String ROW_PLACEHOLDERS =
+            "(?, (SELECT s.id FROM attendance_sessions s WHERE s.id = ?), ?, ?, ?, ?, ?, ?)";
+    private static final int PARAMS_PER_ROW = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<PendingSensorEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS);
+        List<Object> args = new ArrayList<>(events.size() * PARAMS_PER_ROW);
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            addRow(args, events.get(i));
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    @Override
+    public List<UUID> findAttendanceIdsWithReadingsBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT attendance_id FROM sensor_readings
+                WHERE device_time < ? AND attendance_id IS NOT NULL
+                LIMIT ?
+                """, UUID.class, cutoff, limit);
+    }
+
+    @Override
+    public List<PendingSensorEvent> findByAttendanceIds(Collection<UUID> attendanceIds) {
+        if (attendanceIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT user_id, session_id, attendance_id, type, azimuth, near, device_time, server_time
+                FROM sensor_readings
+                WHERE attendance_id IN (%s)
+                ORDER BY attendance_id
+                """.formatted(placeholders(attendanceIds.size())), (rs, rowNum) -> PendingSensorEvent.builder()
+                        .userId(rs.getObject("user_id", UUID.class))
+                        .sessionId(rs.getObject("session_id", UUID.class))
+                        .attendanceId(rs.getObject("attendance_id", UUID.class))
+                        .type(SENSOR_TYPES[rs.getShort("type")])
+                        .azimuth(rs.getObject("azimuth", Float.class))
+                        .near(rs.getObject("near", Boolean.class))
+                        .deviceTime(rs.getObject("device_time", LocalDateTime.class))
+                        .serverTime(rs.getObject("server_time", LocalDateTime.class))
+                        .build(),
+                attendanceIds.toArray());
+    }
+
+    @Override
+    public int deleteByAttendanceIds(Collection<UUID> attendanceIds) {
+        if (attendanceIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM sensor_readings WHERE attendance_id IN (%s)"
+                .formatted(placeholders(attendanceIds.size())), attendanceIds.toArray());
+    }
+
+    @Override
+    public int deleteUnlinkedBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("""
+                DELETE FROM sensor_readings WHERE id IN (
+                    SELECT id FROM sensor_readings
+                    WHERE device_time < ? AND attendance_id IS NULL
+                    LIMIT ?)
+                """, cutoff, limit);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private void addRow(List<Object> args, PendingSensorEvent event) {
+        args.add(event.getUserId());
+        args.add(event.getSessionId());
+        args.add(event.getAttendanceId());
+        args.add((short) event.getType().ordinal());
+        args.add(event.getAzimuth());
+        args.add(event.getNear());
+        args.add(event.getDeviceTime());
+        args.add(event.getServerTime());
+    }
+}
@@ -0,0 +1,26 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface SessionStatisticsRepositoryCustom {
+
+    /**
+     * Recalcula desde las asistencias los contadores de todas las sesiones que tienen asistencias.
+     *
+     * @return filas de estadísticas escritas
+     */
+    int recomputeAll();
+
+    /**
+     * Recalcula desde las asistencias los contadores de las sesiones indicadas.
+     */
+    int recompute(Collection<UUID> sessionIds);
+
+    /**
+     * Sesiones iniciadas desde {@code since} cuyos contadores no coinciden con sus asistencias.
+     */
+    List<UUID> findInconsistentSessionIds(LocalDateTime since);
+}
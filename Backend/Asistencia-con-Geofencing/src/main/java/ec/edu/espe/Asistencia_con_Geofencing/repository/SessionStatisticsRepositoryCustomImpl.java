@@ -0,0 +1,87 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class SessionStatisticsRepositoryCustomImpl implements SessionStatisticsRepositoryCustom {
+
+    static final String COLUMNS = """
+            session_id, total_attendances, on_time_count, on_time_report_count, within_geofence_count,
+            offline_synced_count, sync_delay_seconds""";
+
+    /**
+     * Agregados sobre asistencias {@code x} unidas a su sesión {@code s}; mismas reglas que las
+     * estadísticas calculadas antes en memoria (minutos truncados como ChronoUnit).
+     */
+    static final String AGGREGATES = """
+            x.session_id,
+            COUNT(*),
+            COUNT(*) FILTER (WHERE x.device_time < s.start_time + INTERVAL '5 minutes'),
+            COUNT(*) FILTER (WHERE x.device_time < s.start_time + INTERVAL '16 minutes'),
+            COUNT(*) FILTER (WHERE x.within_geofence),
+            COUNT(*) FILTER (WHERE x.server_time >= x.device_time + INTERVAL '2 minutes'),
+            COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (x.server_time - x.device_time)))), 0)""";
+
+    private static final String RECOMPUTE = "INSERT INTO session_statistics (" + COLUMNS + ")\n"
+            + "SELECT " + AGGREGATES + """
+
+            FROM attendances x JOIN attendance_sessions s ON s.id = x.session_id
+            %s
+            GROUP BY x.session_id
+            ORDER BY x.session_id
+            ON CONFLICT (session_id) DO UPDATE SET
+                total_attendances = EXCLUDED.total_attendances,
+                on_time_count = EXCLUDED.on_time_count,
+                on_time_report_count = EXCLUDED.on_time_report_count,
+                within_geofence_count = EXCLUDED.within_geofence_count,
+                offline_synced_count = EXCLUDED.offline_synced_count,
+                sync_delay_seconds = EXCLUDED.sync_delay_seconds
+            """;
+
+    private static final String FIND_INCONSISTENT = "WITH actual (" + COLUMNS + ") AS (\n"
+            + "SELECT " + AGGREGATES + """
+
+                FROM attendances x JOIN attendance_sessions s ON s.id = x.session_id
+                WHERE s.start_time >= ?
+                GROUP BY x.session_id),
+            stored AS (
+                SELECT st.* FROM session_statistics st JOIN attendance_sessions s ON s.id = st.session_id
+                WHERE s.start_time >= ?)
+            SELECT COALESCE(a.session_id, st.session_id)
+            FROM actual a FULL JOIN stored st ON st.session_id = a.session_id
+            WHERE (a.total_attendances, a.on_time_count, a.on_time_report_count, a.within_geofence_count,
+                   a.offline_synced_count, a.sync_delay_seconds)
+                  IS DISTINCT FROM
+                  (st.total_attendances, st.on_time_count, st.on_time_report_count, st.within_geofence_count,
+                   st.offline_synced_count, st.sync_delay_seconds)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int recomputeAll() {
+        return jdbcTemplate.update(RECOMPUTE.formatted(""));
+    }
+
+    @Override
+    public int recompute(Collection<UUID> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(sessionIds.size(), "?"));
+        return jdbcTemplate.update(RECOMPUTE.formatted("WHERE x.session_id IN (" + placeholders + ")"),
+                sessionIds.toArray());
+    }
+
+    @Override
+    public List<UUID> findInconsistentSessionIds(LocalDateTime since) {
+        return jdbcTemplate.queryForList(FIND_INCONSISTENT, UUID.class, since, since);
+    }
+}
@@ -0,0 +1,10 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.StudentStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.UUID;
+
+@Repository
+public interface StudentStatisticsRepository extends JpaRepository<StudentStatistics, UUID>, StudentStatisticsRepositoryCustom {
+}
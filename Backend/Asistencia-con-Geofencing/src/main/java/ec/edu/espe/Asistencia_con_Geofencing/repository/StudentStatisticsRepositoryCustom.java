@@ -0,0 +1,30 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import java.util.UUID;
+
+public interface StudentStatisticsRepositoryCustom {
+
+    /**
+     * Suma una sesión elegible a cada estudiante que no asistió a la sesión indicada. Se llama una
+     * sola vez, al finalizar la sesión; quienes asistieron ya la contaron al insertar su asistencia.
+     *
+     * @return filas de estadísticas escritas
+     */
+    int countSessionEnded(UUID sessionId);
+
+    /**
+     * Compara los contadores de cada estudiante con los calculados desde las sesiones y asistencias
+     * y le suma la diferencia. Sumar (en lugar de reemplazar) conserva los incrementos que otras
+     * transacciones confirman mientras corre la sentencia.
+     *
+     * @return estudiantes corregidos
+     */
+    int reconcile();
+
+    /**
+     * Recalcula desde las sesiones y asistencias los contadores de todos los estudiantes.
+     *
+     * @return filas de estadísticas escritas
+     */
+    int recomputeAll();
+}
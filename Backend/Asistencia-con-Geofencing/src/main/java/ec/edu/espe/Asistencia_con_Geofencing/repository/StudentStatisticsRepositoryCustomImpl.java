@@ -0,0 +1,83 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class StudentStatisticsRepositoryCustomImpl implements StudentStatisticsRepositoryCustom {
+
+    static final String COLUMNS = "student_id, attended_sessions, eligible_sessions, last_sync_at";
+
+    // Mismo criterio que las notificaciones de ausencia: todos los estudiantes sin asistencia en la sesión
+    private static final String COUNT_SESSION_ENDED = "INSERT INTO student_statistics (" + COLUMNS + ")\n" + """
+            SELECT ur.user_id, 0, 1, NULL
+            FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+            WHERE r.name = 'STUDENT'
+              AND NOT EXISTS (SELECT 1 FROM attendances a WHERE a.session_id = ? AND a.student_id = ur.user_id)
+            ORDER BY ur.user_id
+            ON CONFLICT (student_id) DO UPDATE SET
+                eligible_sessions = student_statistics.eligible_sessions + 1
+            """;
+
+    // Contadores esperados de cada estudiante según sus sesiones y asistencias
+    private static final String ACTUAL = """
+            SELECT u.id AS student_id,
+                   (SELECT COUNT(*) FROM attendances a WHERE a.student_id = u.id) AS attended_sessions,
+                   (SELECT COUNT(*) FROM attendance_sessions s
+                    WHERE (NOT s.active AND s.end_time >= u.created_at)
+                       OR EXISTS (SELECT 1 FROM attendances a WHERE a.session_id = s.id AND a.student_id = u.id))
+                       AS eligible_sessions,
+                   (SELECT MAX(a.server_time) FROM attendances a WHERE a.student_id = u.id AND a.is_synced) AS last_sync_at
+            FROM users u
+            WHERE EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+                          WHERE ur.user_id = u.id AND r.name = 'STUDENT')
+            """;
+
+    // La diferencia se calcula con la foto de la sentencia y se suma a la fila vigente al actualizarla
+    private static final String RECONCILE = "WITH actual AS (" + ACTUAL + """
+            ),
+            drift AS (
+                SELECT a.student_id,
+                       a.attended_sessions - COALESCE(st.attended_sessions, 0) AS attended_sessions,
+                       a.eligible_sessions - COALESCE(st.eligible_sessions, 0) AS eligible_sessions,
+                       a.last_sync_at
+                FROM actual a LEFT JOIN student_statistics st ON st.student_id = a.student_id
+                WHERE (a.attended_sessions, a.eligible_sessions)
+                      IS DISTINCT FROM (COALESCE(st.attended_sessions, 0), COALESCE(st.eligible_sessions, 0)))
+            """ + "INSERT INTO student_statistics (" + COLUMNS + ")\n" + """
+            SELECT student_id, attended_sessions, eligible_sessions, last_sync_at FROM drift
+            ORDER BY student_id
+            ON CONFLICT (student_id) DO UPDATE SET
+                attended_sessions = student_statistics.attended_sessions + EXCLUDED.attended_sessions,
+                eligible_sessions = student_statistics.eligible_sessions + EXCLUDED.eligible_sessions,
+                last_sync_at = GREATEST(student_statistics.last_sync_at, EXCLUDED.last_sync_at)
+            """;
+
+    private static final String RECOMPUTE_ALL = "INSERT INTO student_statistics (" + COLUMNS + ")\n"
+            + ACTUAL + """
+            ORDER BY u.id
+            ON CONFLICT (student_id) DO UPDATE SET
+                attended_sessions = EXCLUDED.attended_sessions,
+                eligible_sessions = EXCLUDED.eligible_sessions,
+                last_sync_at = EXCLUDED.last_sync_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int countSessionEnded(UUID sessionId) {
+        return jdbcTemplate.update(COUNT_SESSION_ENDED, sessionId);
+    }
+
+    @Override
+    public int reconcile() {
+        return jdbcTemplate.update(RECONCILE);
+    }
+
+    @Override
+    public int recomputeAll() {
+        return jdbcTemplate.update(RECOMPUTE_ALL);
+    }
+}
@@ -2,9 +2,15 @@ package ec.edu.espe.Asistencia_con_Geofencing.repository;
 
 import ec.edu.espe.Asistencia_con_Geofencing.model.SyncBatch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.UUID;
 
 @Repository
 public interface SyncBatchRepository extends JpaRepository<SyncBatch, UUID> {
-}
\ No newline at end of file
+
+    @Query("UPDATE SyncBatch b SET b.itemCount = b.itemCount + :count WHERE b.id = :batchId")
+    @Modifying
+    void incrementItemCount(UUID batchId, int count);
+}
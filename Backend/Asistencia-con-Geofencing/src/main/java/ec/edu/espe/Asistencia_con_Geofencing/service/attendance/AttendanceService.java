@@ -13,8 +13,19 @@ import java.util.UUID;
 
 
 public interface AttendanceService {
-    AttendanceResponse validateQrAndRegisterAttendance(ValidateQrRequest request, UUID studentId);
+    AttendanceResponse validateQrAndRegisterAttendance(ValidateQrRequest request, UUID studentId, String studentName);
     SyncResultResponse syncOfflineAttendances(SyncAttendancesRequest request, UUID userId);
+
+    /**
+     * Crea el lote de sincronización de una subida por streaming tras verificar el dispositivo.
+     */
+    UUID startSyncBatch(UUID deviceId, UUID userId);
+
+    /**
+     * Procesa un tramo de una subida por streaming en su propia transacción.
+     */
+    List<SyncResultResponse.SyncItemResult> syncChunk(UUID batchId, UUID deviceId, UUID userId,
+                                                      List<SyncAttendancesRequest.OfflineAttendanceData> items);
     AttendanceHistoryResponse getMyHistory(UUID studentId, LocalDate startDate, LocalDate endDate, Pageable pageable);
     List<AttendanceResponse> getSessionAttendances(UUID sessionId);
 
@@ -1,6 +1,8 @@
 package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
 
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.AttendanceInsertResult;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.mapper.AttendanceMapper;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.SyncAttendancesRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.ValidateQrRequest;
@@ -10,8 +12,8 @@ import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SyncResultResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.exception.*;
 import ec.edu.espe.Asistencia_con_Geofencing.model.*;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.*;
-import ec.edu.espe.Asistencia_con_Geofencing.service.geofence.GeofenceService;
-import ec.edu.espe.Asistencia_con_Geofencing.service.sensor.SensorValidationService;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrToken;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrTokenRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,10 +22,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,94 +43,95 @@ import java.util.stream.Collectors;
 public class AttendanceServiceImpl implements AttendanceService {
 
     private final AttendanceRepository attendanceRepository;
-    private final QrTokenRepository qrTokenRepository;
     private final UserRepository userRepository;
     private final DeviceRepository deviceRepository;
     private final SyncBatchRepository syncBatchRepository;
     private final SensorEventRepository sensorEventRepository;
     private final AttendanceSessionRepository sessionRepository;
-    private final GeofenceService geofenceService;
-    private final SensorValidationService sensorValidationService;
+    private final StudentStatisticsRepository studentStatisticsRepository;
+    private final ScanValidator scanValidator;
+    private final SensorScoringStage sensorScoringStage;
+    private final ActiveQrTokenRegistry activeQrTokenRegistry;
+    private final AttendanceWriteBehindQueue writeBehindQueue;
+    private final ScanAdmissionControl scanAdmissionControl;
 
     @Override
-    @Transactional
-    public AttendanceResponse validateQrAndRegisterAttendance(ValidateQrRequest request, UUID studentId) {
-        QrToken qrToken = qrTokenRepository.findValidToken(request.getToken(), LocalDateTime.now())
-                .orElseThrow(() -> new TokenExpiredException("El código QR ha expirado"));
-
-        AttendanceSession session = qrToken.getSession();
-
-        if (!session.getActive()) {
-            throw new SessionInactiveException("La sesión ha finalizado", session.getEndTime());
-        }
-
-        attendanceRepository.findBySessionIdAndStudentId(session.getId(), studentId)
-                .ifPresent(existing -> {
-                    throw new AlreadyRegisteredException(
-                            "Ya has registrado tu asistencia en esta sesión",
-                            existing.getId(),
-                            existing.getServerTime()
-                    );
-                });
-
-        GeofenceZone geofence = session.getGeofence();
-        double distance = geofenceService.calculateDistance(
-                request.getLatitude(),
-                request.getLongitude(),
-                geofence.getLatitude(),
-                geofence.getLongitude()
-        );
-
-        boolean withinGeofence = distance <= geofence.getRadiusMeters();
-
-        if (!withinGeofence) {
-            throw new OutsideGeofenceException(
-                    "Debes estar dentro de " + geofence.getName() + " para registrar asistencia",
-                    geofence.getName(),
-                    distance,
-                    geofence.getRadiusMeters()
-            );
-        }
-
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Estudiante no encontrado"));
-
-        Integer trustScore = calculateTrustScoreFromDistance(distance, withinGeofence);
-        log.info("Trust score calculado: {} (distancia: {}m, dentro: {})", trustScore, distance, withinGeofence);
+    public AttendanceResponse validateQrAndRegisterAttendance(ValidateQrRequest request, UUID studentId, String studentName) {
+        ActiveQrToken qrToken = activeQrTokenRegistry.resolve(request.getToken(), LocalDateTime.now()).orElse(null);
+        // Único punto donde un rechazo esperado se convierte en excepción (la respuesta HTTP de error)
+        ScanOutcome.Accepted accepted = switch (scanValidator.evaluate(qrToken, request.getLatitude(), request.getLongitude())) {
+            case ScanOutcome.Accepted outcome -> outcome;
+            case ScanOutcome.Rejected rejected -> throw rejected.toException();
+        };
+        log.info("Trust score calculado: {} (distancia: {}m)", accepted.trustScore(), accepted.distance());
 
         Attendance attendance = new Attendance();
-        attendance.setSession(session);
-        attendance.setStudent(student);
+        attendance.setSession(sessionRepository.getReferenceById(accepted.qrToken().getSessionId()));
+        attendance.setStudent(userRepository.getReferenceById(studentId));
         attendance.setDeviceTime(request.getDeviceTime());
         attendance.setLatitude(request.getLatitude());
         attendance.setLongitude(request.getLongitude());
-        attendance.setWithinGeofence(withinGeofence);
+        attendance.setWithinGeofence(true);
         attendance.setIsSynced(true);
-        attendance.setTrustScore(trustScore);
-        String locationInfo = String.format("{\"distance\":%.2f,\"within_zone\":%b}", distance, withinGeofence);
-        attendance.setSensorStatus(locationInfo);
+        attendance.setTrustScore(accepted.trustScore());
+        attendance.setSensorStatus(accepted.sensorStatus());
 
-        // Registrar el dispositivo de origen si se proporciona
+        // Registrar el dispositivo de origen si se proporciona; el INSERT lo descarta si no es del estudiante
         if (request.getDeviceId() != null) {
-            Device sourceDevice = deviceRepository.findById(request.getDeviceId())
-                    .orElse(null);
-            if (sourceDevice != null && sourceDevice.getUser().getId().equals(studentId)) {
-                attendance.setSourceDevice(sourceDevice);
-                log.debug("Dispositivo de origen registrado: {}", request.getDeviceId());
-            }
+            attendance.setSourceDevice(deviceRepository.getReferenceById(request.getDeviceId()));
         }
 
-        attendance = attendanceRepository.save(attendance);
+        // El duplicado se detecta en el propio INSERT (ON CONFLICT), sin consulta previa
+        Optional<ScanOutcome.Duplicate> duplicate = writeBehindQueue.isEnabled()
+                ? awaitWriteBehind(attendance)
+                : insertIfAbsent(attendance);
+        if (duplicate.isPresent()) {
+            throw duplicate.get().toException();
+        }
         log.info("✅ Asistencia registrada - ID: {}, TrustScore: {}, Distancia: {}m", 
-                attendance.getId(), trustScore, distance);
+                attendance.getId(), accepted.trustScore(), accepted.distance());
 
-        return AttendanceMapper.mapToResponse(attendance);
+        // Los sensores se analizan fuera del camino crítico; el score se actualiza después
+        sensorScoringStage.submit(attendance.getId(), accepted.qrToken().getSessionId(), studentId, accepted,
+                request.getSensorData());
+
+        return AttendanceMapper.mapToResponse(attendance, studentName);
     }
 
     @Override
     @Transactional
     public SyncResultResponse syncOfflineAttendances(SyncAttendancesRequest request, UUID userId) {
-        Device device = deviceRepository.findById(request.getDeviceId())
+        SyncBatch syncBatch = createSyncBatch(request.getDeviceId(), userId, request.getAttendances().size());
+        List<SyncResultResponse.SyncItemResult> results =
+                syncItems(syncBatch.getId(), request.getDeviceId(), userId, request.getAttendances());
+
+        int syncedCount = (int) results.stream().filter(result -> "SYNCED".equals(result.getStatus())).count();
+        log.info("Sincronización {}: {} asistencias registradas de {}", syncBatch.getId(), syncedCount, results.size());
+
+        return SyncResultResponse.builder()
+                .batchId(syncBatch.getId())
+                .syncedCount(syncedCount)
+                .failedCount(results.size() - syncedCount)
+                .results(results)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public UUID startSyncBatch(UUID deviceId, UUID userId) {
+        return createSyncBatch(deviceId, userId, 0).getId();
+    }
+
+    @Override
+    @Transactional
+    public List<SyncResultResponse.SyncItemResult> syncChunk(UUID batchId, UUID deviceId, UUID userId,
+                                                             List<SyncAttendancesRequest.OfflineAttendanceData> items) {
+        syncBatchRepository.incrementItemCount(batchId, items.size());
+        return syncItems(batchId, deviceId, userId, items);
+    }
+
+    private SyncBatch createSyncBatch(UUID deviceId, UUID userId, int itemCount) {
+        Device device = deviceRepository.findById(deviceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Dispositivo no encontrado"));
 
         if (!device.getUser().getId().equals(userId)) {
@@ -132,74 +144,146 @@ public class AttendanceServiceImpl implements AttendanceService {
         SyncBatch syncBatch = new SyncBatch();
         syncBatch.setUser(user);
         syncBatch.setDevice(device);
-        syncBatch.setItemCount(request.getAttendances().size());
-        syncBatch = syncBatchRepository.save(syncBatch);
+        syncBatch.setItemCount(itemCount);
+        // Se escribe ya para que las asistencias insertadas por JDBC puedan referenciarlo
+        return syncBatchRepository.saveAndFlush(syncBatch);
+    }
 
-        List<SyncResultResponse.SyncItemResult> results = new ArrayList<>();
-        int syncedCount = 0;
-        int failedCount = 0;
+    /**
+     * Valida y registra un grupo de asistencias offline del mismo dispositivo con un número fijo
+     * de consultas, independiente del tamaño del grupo. Los resultados conservan el orden de entrada.
+     */
+    private List<SyncResultResponse.SyncItemResult> syncItems(UUID batchId, UUID deviceId, UUID userId,
+                                                              List<SyncAttendancesRequest.OfflineAttendanceData> items) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Elementos ya aplicados por una sincronización anterior del mismo dispositivo (reintento parcial)
+        Set<String> tempIds = items.stream()
+                .map(SyncAttendancesRequest.OfflineAttendanceData::getTempId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, UUID> alreadySynced = tempIds.isEmpty()
+                ? Map.of()
+                : attendanceRepository.findBySourceDeviceIdAndClientTempIdIn(deviceId, tempIds).stream()
+                        .collect(Collectors.toMap(Attendance::getClientTempId, Attendance::getId, (first, second) -> first));
+
+        // Una consulta para todos los tokens y otra para las asistencias ya registradas en sus sesiones
+        Map<String, ActiveQrToken> tokens = activeQrTokenRegistry.resolveAll(
+                items.stream()
+                        .filter(data -> data.getTempId() == null || !alreadySynced.containsKey(data.getTempId()))
+                        .map(SyncAttendancesRequest.OfflineAttendanceData::getToken)
+                        .toList(), now);
+        Set<UUID> sessionIds = tokens.values().stream()
+                .map(ActiveQrToken::getSessionId)
+                .collect(Collectors.toSet());
+        Map<UUID, Attendance> existingBySession = sessionIds.isEmpty()
+                ? Map.of()
+                : attendanceRepository.findByStudentIdAndSessionIdIn(userId, sessionIds).stream()
+                        .collect(Collectors.toMap(existing -> existing.getSession().getId(), Function.identity()));
+
+        SyncResultResponse.SyncItemResult[] results = new SyncResultResponse.SyncItemResult[items.size()];
+        Map<UUID, PendingAttendance> acceptedBySession = new LinkedHashMap<>();
+        Map<Integer, PendingAttendance> acceptedByIndex = new LinkedHashMap<>();
+        Map<Integer, ScanOutcome.Accepted> outcomesByIndex = new HashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            SyncAttendancesRequest.OfflineAttendanceData data = items.get(i);
+            UUID syncedId = data.getTempId() != null ? alreadySynced.get(data.getTempId()) : null;
+            if (syncedId != null) {
+                results[i] = SyncResultResponse.SyncItemResult.builder()
+                        .tempId(data.getTempId())
+                        .serverId(syncedId)
+                        .status("SYNCED")
+                        .message("Asistencia ya sincronizada")
+                        .build();
+                continue;
+            }
+            if (data.getLatitude() == null || data.getLongitude() == null || data.getDeviceTime() == null) {
+                results[i] = failedItem(data, "SYNC_ERROR", "Error al sincronizar", null);
+                continue;
+            }
+            // La rotación del QR se comprueba contra la hora del escaneo, no contra la de la sincronización
+            ActiveQrToken qrToken = tokens.get(data.getToken());
+            if (qrToken != null && !activeQrTokenRegistry.isValidOfflineScan(qrToken, data.getDeviceTime(), now)) {
+                qrToken = null;
+            }
+            ScanOutcome outcome = scanValidator.evaluate(qrToken, data.getLatitude(), data.getLongitude());
+            if (outcome instanceof ScanOutcome.Accepted candidate) {
+                UUID sessionId = candidate.qrToken().getSessionId();
+                Attendance existing = existingBySession.get(sessionId);
+                PendingAttendance earlier = acceptedBySession.get(sessionId);
+                if (existing != null || earlier != null) {
+                    outcome = existing != null
+                            ? new ScanOutcome.Duplicate(existing.getId(), existing.getServerTime())
+                            : new ScanOutcome.Duplicate(earlier.getId(), earlier.getServerTime());
+                }
+            }
+            if (!(outcome instanceof ScanOutcome.Accepted accepted)) {
+                results[i] = failedItem(data, (ScanOutcome.Rejected) outcome);
+                continue;
+            }
 
-        for (SyncAttendancesRequest.OfflineAttendanceData data : request.getAttendances()) {
-            try {
-                ValidateQrRequest validateRequest = new ValidateQrRequest();
-                validateRequest.setToken(data.getToken());
-                validateRequest.setLatitude(data.getLatitude());
-                validateRequest.setLongitude(data.getLongitude());
-                validateRequest.setDeviceTime(data.getDeviceTime());
-                validateRequest.setSensorData(data.getSensorData());
+            PendingAttendance row = PendingAttendance.builder()
+                    .id(UUID.randomUUID())
+                    .sessionId(accepted.qrToken().getSessionId())
+                    .studentId(userId)
+                    .deviceTime(data.getDeviceTime())
+                    .serverTime(now)
+                    .latitude(data.getLatitude())
+                    .longitude(data.getLongitude())
+                    .withinGeofence(true)
+                    .sensorStatus(accepted.sensorStatus())
+                    .trustScore(accepted.trustScore())
+                    .synced(true)
+                    .sourceDeviceId(deviceId)
+                    .syncBatchId(batchId)
+                    .clientTempId(data.getTempId())
+                    .build();
+            acceptedBySession.put(row.getSessionId(), row);
+            acceptedByIndex.put(i, row);
+            outcomesByIndex.put(i, accepted);
+        }
 
-                AttendanceResponse response = validateQrAndRegisterAttendance(validateRequest, userId);
+        // Todas las filas aceptadas en una sola sentencia; ON CONFLICT cubre escaneos concurrentes
+        Set<UUID> inserted = acceptedByIndex.isEmpty()
+                ? Set.of()
+                : attendanceRepository.insertAllIfAbsent(List.copyOf(acceptedByIndex.values()));
 
-                results.add(SyncResultResponse.SyncItemResult.builder()
+        acceptedByIndex.forEach((index, row) -> {
+            SyncAttendancesRequest.OfflineAttendanceData data = items.get(index);
+            if (inserted.contains(row.getId())) {
+                results[index] = SyncResultResponse.SyncItemResult.builder()
                         .tempId(data.getTempId())
-                        .serverId(response.getAttendanceId())
+                        .serverId(row.getId())
                         .status("SYNCED")
                         .message("Asistencia registrada correctamente")
-                        .build());
-
-                syncedCount++;
-            } catch (TokenExpiredException e) {
-                results.add(SyncResultResponse.SyncItemResult.builder()
-                        .tempId(data.getTempId())
-                        .status("FAILED")
-                        .errorCode("TOKEN_EXPIRED")
-                        .message(e.getMessage())
-                        .build());
-                failedCount++;
-            } catch (OutsideGeofenceException e) {
-                results.add(SyncResultResponse.SyncItemResult.builder()
-                        .tempId(data.getTempId())
-                        .status("FAILED")
-                        .errorCode("OUTSIDE_GEOFENCE")
-                        .message(e.getMessage())
-                        .build());
-                failedCount++;
-            } catch (AlreadyRegisteredException e) {
-                results.add(SyncResultResponse.SyncItemResult.builder()
-                        .tempId(data.getTempId())
-                        .serverId(e.getAttendanceId())
-                        .status("FAILED")
-                        .errorCode("ALREADY_REGISTERED")
-                        .message(e.getMessage())
-                        .build());
-                failedCount++;
-            } catch (Exception e) {
-                log.error("Error sincronizando asistencia: {}", e.getMessage());
-                results.add(SyncResultResponse.SyncItemResult.builder()
-                        .tempId(data.getTempId())
-                        .status("FAILED")
-                        .errorCode("SYNC_ERROR")
-                        .message("Error al sincronizar")
-                        .build());
-                failedCount++;
+                        .build();
+                sensorScoringStage.submit(row.getId(), row.getSessionId(), userId, outcomesByIndex.get(index),
+                        data.getSensorData());
+            } else {
+                ScanOutcome.Duplicate duplicate = attendanceRepository.findBySessionIdAndStudentId(row.getSessionId(), userId)
+                        .map(existing -> new ScanOutcome.Duplicate(existing.getId(), existing.getServerTime()))
+                        .orElseGet(() -> new ScanOutcome.Duplicate(null, null));
+                results[index] = failedItem(data, duplicate);
             }
-        }
+        });
 
-        return SyncResultResponse.builder()
-                .batchId(syncBatch.getId())
-                .syncedCount(syncedCount)
-                .failedCount(failedCount)
-                .results(results)
+        return List.of(results);
+    }
+
+    private SyncResultResponse.SyncItemResult failedItem(SyncAttendancesRequest.OfflineAttendanceData data,
+                                                         ScanOutcome.Rejected rejected) {
+        return failedItem(data, rejected.errorCode(), rejected.message(), rejected.attendanceId());
+    }
+
+    private SyncResultResponse.SyncItemResult failedItem(SyncAttendancesRequest.OfflineAttendanceData data,
+                                                         String errorCode, String message, UUID serverId) {
+        return SyncResultResponse.SyncItemResult.builder()
+                .tempId(data.getTempId())
+                .serverId(serverId)
+                .status("FAILED")
+                .errorCode(errorCode)
+                .message(message)
                 .build();
     }
 
@@ -214,13 +298,12 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .map(AttendanceMapper::mapToResponse)
                 .collect(Collectors.toList());
 
-        Long totalAttended = attendanceRepository.countAttendedSessionsByStudentId(studentId);
-        Long totalSessions = sessionRepository.count();
-        Double attendanceRate = totalSessions > 0 ? (totalAttended.doubleValue() / totalSessions) * 100 : 0.0;
+        StudentStatistics statistics = studentStatisticsRepository.findById(studentId)
+                .orElseGet(() -> StudentStatistics.empty(studentId));
         AttendanceHistoryResponse.AttendanceSummary summary = AttendanceHistoryResponse.AttendanceSummary.builder()
-                .totalSessions(totalSessions)
-                .attendedSessions(totalAttended)
-                .attendanceRate(Math.round(attendanceRate * 100.0) / 100.0)
+                .totalSessions((long) statistics.getEligibleSessions())
+                .attendedSessions((long) statistics.getAttendedSessions())
+                .attendanceRate(Math.round(statistics.attendanceRate() * 100.0) / 100.0)
                 .build();
 
         return AttendanceHistoryResponse.builder()
@@ -240,43 +323,60 @@ public class AttendanceServiceImpl implements AttendanceService {
     }
 
     /**
-     * Calcula el trust score basado únicamente en la distancia GPS a la zona
-     * 
-     * @param distance Distancia en metros a la zona
-     * @param withinGeofence Si está dentro del perímetro de la zona
-     * @return Score de 0-100
+     * Inserta la asistencia con una única sentencia idempotente. Si el estudiante ya tenía
+     * asistencia en la sesión se informa la existente en lugar de fallar por la restricción UNIQUE.
      */
-    private Integer calculateTrustScoreFromDistance(Double distance, boolean withinGeofence) {
-        if (distance == null) {
-            return 50; // Score neutral si no hay datos
-        }
-
-        // Dentro de la zona = score alto
-        if (withinGeofence && distance <= 50) {
-            return 100; // Perfecto - dentro de la zona
+    private Optional<ScanOutcome.Duplicate> insertIfAbsent(Attendance attendance) {
+        PendingAttendance row = PendingAttendance.from(attendance);
+        Optional<AttendanceInsertResult> result = attendanceRepository.insertIfAbsent(row);
+        if (result.isEmpty()) {
+            return Optional.of(findExisting(row));
         }
-
-        // Muy cerca pero técnicamente fuera del radio
-        if (distance <= 10) {
-            return 95; // Excelente - prácticamente dentro
+        if (!result.get().isInserted()) {
+            return Optional.of(new ScanOutcome.Duplicate(result.get().getAttendanceId(), result.get().getServerTime()));
         }
 
-        if (distance <= 20) {
-            return 85; // Muy bueno - muy cerca
-        }
+        attendance.setId(result.get().getAttendanceId());
+        attendance.setServerTime(result.get().getServerTime());
+        return Optional.empty();
+    }
 
-        if (distance <= 50) {
-            return 70; // Bueno (límite de VÁLIDO) - cerca
+    /**
+     * Encola la asistencia en la escritura diferida y espera a que su lote haga commit.
+     * La espera no ocupa conexión: libera el permiso de admisión para que otros escaneos llenen el lote.
+     */
+    private Optional<ScanOutcome.Duplicate> awaitWriteBehind(Attendance attendance) {
+        PendingAttendance row = PendingAttendance.from(attendance);
+        boolean inserted;
+        try {
+            CompletableFuture<Boolean> ack = writeBehindQueue.submit(row);
+            scanAdmissionControl.releaseHeld();
+            inserted = ack.get(writeBehindQueue.getAckTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.error("Error en la escritura diferida de asistencia: {}", e.getCause().getMessage());
+            throw new ServiceUnavailableException("No se pudo registrar la asistencia. Intenta nuevamente.");
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("El registro de asistencia está demorando más de lo esperado. Intenta nuevamente.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("No se pudo registrar la asistencia. Intenta nuevamente.");
         }
 
-        if (distance <= 100) {
-            return 55; // Sospechoso pero aceptable - distancia media
+        if (!inserted) {
+            return Optional.of(findExisting(row));
         }
 
-        if (distance <= 200) {
-            return 30; // Sospechoso - lejos
-        }
+        attendance.setId(row.getId());
+        attendance.setServerTime(row.getServerTime());
+        return Optional.empty();
+    }
 
-        return 10; // Muy sospechoso - muy lejos (>200m)
+    /**
+     * Recupera la asistencia que impidió el INSERT (confirmada por otra transacción).
+     */
+    private ScanOutcome.Duplicate findExisting(PendingAttendance row) {
+        return attendanceRepository.findBySessionIdAndStudentId(row.getSessionId(), row.getStudentId())
+                .map(existing -> new ScanOutcome.Duplicate(existing.getId(), existing.getServerTime()))
+                .orElseThrow(() -> new ServiceUnavailableException("No se pudo registrar la asistencia. Intenta nuevamente."));
     }
 }
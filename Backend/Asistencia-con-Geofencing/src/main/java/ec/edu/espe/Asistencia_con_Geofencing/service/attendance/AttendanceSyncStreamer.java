@@ -0,0 +1,90 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.SyncAttendancesRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SyncResultResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sincronización offline por streaming (NDJSON).
+ *
+ * Lee las asistencias una a una del cuerpo de la petición y las procesa en tramos de
+ * {@code attendance.sync.stream.chunk-size}, cada uno en su propia transacción. Los resultados de un
+ * tramo se escriben en cuanto hace commit, así que la memoria no depende del tamaño de la subida y
+ * el cliente ve el progreso. La última línea es el resumen del lote (sin la lista de resultados).
+ * Si la subida se corta, los tramos ya confirmados se conservan.
+ *
+ * La respuesta dura como máximo {@code spring.mvc.async.request-timeout}. Si termina sin la línea de
+ * resumen (timeout o conexión cortada), el cliente reanuda en una nueva petición con las asistencias
+ * posteriores a la última línea de resultado recibida. Reenviar alguna ya confirmada es seguro: su
+ * {@code tempId} se reconoce y se informa como SYNCED con el ID existente.
+ */
+@Slf4j
+@Component
+public class AttendanceSyncStreamer {
+
+    private static final byte NEWLINE = '\n';
+
+    private final AttendanceService attendanceService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader itemReader;
+    private final int chunkSize;
+
+    public AttendanceSyncStreamer(AttendanceService attendanceService,
+                                  ObjectMapper objectMapper,
+                                  @Value("${attendance.sync.stream.chunk-size:100}") int chunkSize) {
+        this.attendanceService = attendanceService;
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(SyncAttendancesRequest.OfflineAttendanceData.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public void stream(UUID batchId, UUID deviceId, UUID userId, InputStream in, OutputStream out) throws IOException {
+        int syncedCount = 0;
+        int failedCount = 0;
+        List<SyncAttendancesRequest.OfflineAttendanceData> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<SyncAttendancesRequest.OfflineAttendanceData> items = itemReader.readValues(in)) {
+            while (items.hasNext()) {
+                chunk.add(items.next());
+                if (chunk.size() == chunkSize || !items.hasNext()) {
+                    for (SyncResultResponse.SyncItemResult result : attendanceService.syncChunk(batchId, deviceId, userId, chunk)) {
+                        if ("SYNCED".equals(result.getStatus())) {
+                            syncedCount++;
+                        } else {
+                            failedCount++;
+                        }
+                        writeLine(out, result);
+                    }
+                    out.flush();
+                    chunk.clear();
+                }
+            }
+        }
+
+        log.info("Sincronización por streaming {}: {} asistencias registradas de {}",
+                batchId, syncedCount, syncedCount + failedCount);
+        writeLine(out, SyncResultResponse.builder()
+                .batchId(batchId)
+                .syncedCount(syncedCount)
+                .failedCount(failedCount)
+                .build());
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write(NEWLINE);
+    }
+}
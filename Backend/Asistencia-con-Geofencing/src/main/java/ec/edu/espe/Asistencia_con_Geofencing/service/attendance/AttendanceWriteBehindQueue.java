@@ -0,0 +1,177 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.ServiceUnavailableException;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola de escritura diferida para asistencias aceptadas.
+ *
+ * Un único hilo agrupa las filas encoladas y las inserta en lotes de hasta {@code batch-size} filas
+ * o cada {@code flush-interval-ms}. El futuro de cada fila se completa cuando su lote hace commit,
+ * de modo que el cliente solo recibe confirmación cuando la asistencia es durable. Las filas que ya
+ * existían para el mismo (sesión, estudiante) se omiten en el INSERT y se informan como duplicadas.
+ * Solo se activa con {@code attendance.ingestion.mode=write-behind}.
+ */
+@Slf4j
+@Component
+public class AttendanceWriteBehindQueue {
+
+    private final AttendanceRepository attendanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Submission> queue;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long ackTimeoutMillis;
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public AttendanceWriteBehindQueue(
+            AttendanceRepository attendanceRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${attendance.ingestion.mode:direct}") String ingestionMode,
+            @Value("${attendance.ingestion.write-behind.queue-capacity:5000}") int queueCapacity,
+            @Value("${attendance.ingestion.write-behind.batch-size:200}") int batchSize,
+            @Value("${attendance.ingestion.write-behind.flush-interval-ms:5}") long flushIntervalMillis,
+            @Value("${attendance.ingestion.write-behind.ack-timeout-ms:5000}") long ackTimeoutMillis) {
+        this.attendanceRepository = attendanceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.enabled = "write-behind".equalsIgnoreCase(ingestionMode);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.ackTimeoutMillis = ackTimeoutMillis;
+
+        Gauge.builder("attendance.write_behind.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("attendance.write_behind.batch.size").register(meterRegistry);
+        this.flushLatency = Timer.builder("attendance.write_behind.flush.latency").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getAckTimeoutMillis() {
+        return ackTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("attendance-write-behind")
+                .daemon(true)
+                .start(this::runFlusher);
+        log.info("Ingesta diferida de asistencias activa (lote: {}, cola: {})", batchSize, queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Encola la fila. El futuro se completa al confirmarse su lote: {@code true} si se insertó,
+     * {@code false} si el estudiante ya tenía asistencia en la sesión.
+     */
+    public CompletableFuture<Boolean> submit(PendingAttendance row) {
+        Submission submission = new Submission(row, new CompletableFuture<>());
+        if (!queue.offer(submission)) {
+            throw new ServiceUnavailableException("El sistema está procesando demasiadas asistencias. Intenta nuevamente.");
+        }
+        return submission.future();
+    }
+
+    private void runFlusher() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Submission next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en la ingesta diferida de asistencias", e);
+                batch.forEach(submission -> submission.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Submission> batch) {
+        List<PendingAttendance> rows = batch.stream().map(Submission::row).toList();
+        long start = System.nanoTime();
+        try {
+            Set<UUID> inserted = transactionTemplate.execute(status -> attendanceRepository.insertAllIfAbsent(rows));
+            batch.forEach(submission -> submission.future().complete(inserted.contains(submission.row().getId())));
+        } catch (DataAccessException e) {
+            // Un error (p. ej. una FK inválida) aborta todo el lote: se reintenta fila por fila para aislarlo
+            log.debug("Lote de {} asistencias rechazado, reintentando por fila: {}", batch.size(), e.getMessage());
+            batch.forEach(this::flushSingle);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void flushSingle(Submission submission) {
+        try {
+            Set<UUID> inserted = transactionTemplate.execute(
+                    status -> attendanceRepository.insertAllIfAbsent(List.of(submission.row())));
+            submission.future().complete(inserted.contains(submission.row().getId()));
+        } catch (DataAccessException e) {
+            submission.future().completeExceptionally(e);
+        }
+    }
+
+    private record Submission(PendingAttendance row, CompletableFuture<Boolean> future) {
+    }
+}
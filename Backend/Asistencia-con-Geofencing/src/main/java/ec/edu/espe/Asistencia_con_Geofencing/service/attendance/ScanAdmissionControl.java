@@ -0,0 +1,210 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.exception.TooManyRequestsException;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrTokenRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión para la validación de QR durante las ráfagas de inicio de clase.
+ *
+ * Cada escaneo adquiere un permiso de la franja de su sesión (semáforos por hash del ID de sesión)
+ * y uno del límite global, que se mantiene por debajo del pool de conexiones para dejar margen a
+ * dashboards y reportes. Las peticiones que no obtienen permiso en {@code queue-timeout-ms} se
+ * rechazan con 429 y {@code Retry-After}, así ninguna espera una conexión hasta su timeout.
+ * La sesión se obtiene del token sin consultar la base de datos.
+ *
+ * Quien deja de usar la base de datos antes de terminar (la espera del commit en la escritura
+ * diferida) devuelve los permisos con {@link #releaseHeld()}, para que otros escaneos completen el
+ * lote en lugar de esperar en la cola. Las métricas por sesión se eliminan al finalizar la sesión en
+ * este nodo o, si finalizó en otro, tras {@code stats-idle-seconds} sin escaneos.
+ */
+@Slf4j
+@Component
+public class ScanAdmissionControl {
+
+    private static final String UNKNOWN_SESSION = "unknown";
+
+    private final ActiveQrTokenRegistry activeQrTokenRegistry;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Semaphore[] stripes;
+    private final Semaphore global;
+    private final long queueTimeoutNanos;
+    private final long retryAfterSeconds;
+    private final long statsIdleNanos;
+    private final Map<UUID, SessionStats> sessionStats = new ConcurrentHashMap<>();
+    // Permisos del escaneo que se ejecuta en el hilo actual
+    private final ThreadLocal<Permit> held = new ThreadLocal<>();
+    private final Counter unknownSessionRejections;
+
+    public ScanAdmissionControl(
+            ActiveQrTokenRegistry activeQrTokenRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${attendance.admission.enabled:true}") boolean enabled,
+            @Value("${attendance.admission.stripes:64}") int stripeCount,
+            @Value("${attendance.admission.permits-per-session:4}") int permitsPerSession,
+            @Value("${attendance.admission.max-concurrent:8}") int maxConcurrent,
+            @Value("${attendance.admission.queue-timeout-ms:2000}") long queueTimeoutMillis,
+            @Value("${attendance.admission.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${attendance.admission.stats-idle-seconds:900}") long statsIdleSeconds) {
+        this.activeQrTokenRegistry = activeQrTokenRegistry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.stripes = new Semaphore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Semaphore(permitsPerSession, true);
+        }
+        this.global = new Semaphore(maxConcurrent, true);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.statsIdleNanos = TimeUnit.SECONDS.toNanos(statsIdleSeconds);
+        this.unknownSessionRejections = Counter.builder("scan.admission.rejections")
+                .tag("session", UNKNOWN_SESSION)
+                .register(meterRegistry);
+        Gauge.builder("scan.admission.in_flight", global, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la validación si obtiene permiso dentro del plazo; si no, lanza {@link TooManyRequestsException}.
+     */
+    public <T> T admit(String token, Supplier<T> operation) {
+        if (!enabled) {
+            return operation.get();
+        }
+
+        UUID sessionId = activeQrTokenRegistry.peekSessionId(token).orElse(null);
+        SessionStats stats = sessionId != null ? sessionStats.computeIfAbsent(sessionId, this::register) : null;
+        if (stats != null) {
+            stats.lastUsedNanos().set(System.nanoTime());
+        }
+        Semaphore stripe = stripes[Math.floorMod(sessionId != null ? sessionId.hashCode() : Objects.hashCode(token), stripes.length)];
+
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        boolean stripeAcquired = false;
+        boolean globalAcquired = false;
+        if (stats != null) {
+            stats.waiting().incrementAndGet();
+        }
+        try {
+            stripeAcquired = stripe.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            if (stripeAcquired) {
+                globalAcquired = global.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (stats != null) {
+                stats.waiting().decrementAndGet();
+            }
+        }
+
+        if (!globalAcquired) {
+            if (stripeAcquired) {
+                stripe.release();
+            }
+            (stats != null ? stats.rejections() : unknownSessionRejections).increment();
+            log.debug("Escaneo rechazado por saturación (sesión: {})", sessionId);
+            throw new TooManyRequestsException(
+                    "Hay demasiados registros de asistencia en curso. Intenta nuevamente en unos segundos.",
+                    retryAfterSeconds);
+        }
+
+        Permit permit = new Permit(stripe);
+        held.set(permit);
+        try {
+            return operation.get();
+        } finally {
+            held.remove();
+            permit.release();
+        }
+    }
+
+    /**
+     * Devuelve antes de tiempo los permisos del escaneo en curso en este hilo. Sin escaneo admitido
+     * (o con el control desactivado) no hace nada.
+     */
+    public void releaseHeld() {
+        Permit permit = held.get();
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    /**
+     * Elimina las métricas de una sesión finalizada.
+     */
+    public void forgetSession(UUID sessionId) {
+        SessionStats stats = sessionStats.remove(sessionId);
+        if (stats != null) {
+            meterRegistry.remove(stats.queueDepth());
+            meterRegistry.remove(stats.rejections());
+        }
+    }
+
+    /**
+     * Elimina las métricas de sesiones sin escaneos recientes, incluidas las finalizadas en otro nodo.
+     */
+    @Scheduled(fixedDelayString = "${attendance.admission.stats-cleanup-ms:60000}")
+    public void expireIdleStats() {
+        long now = System.nanoTime();
+        sessionStats.forEach((sessionId, stats) -> {
+            if (stats.waiting().get() == 0 && now - stats.lastUsedNanos().get() > statsIdleNanos
+                    && sessionStats.remove(sessionId, stats)) {
+                meterRegistry.remove(stats.queueDepth());
+                meterRegistry.remove(stats.rejections());
+            }
+        });
+    }
+
+    private SessionStats register(UUID sessionId) {
+        AtomicInteger waiting = new AtomicInteger();
+        Gauge queueDepth = Gauge.builder("scan.admission.queue.depth", waiting, AtomicInteger::get)
+                .tag("session", sessionId.toString())
+                .register(meterRegistry);
+        Counter rejections = Counter.builder("scan.admission.rejections")
+                .tag("session", sessionId.toString())
+                .register(meterRegistry);
+        return new SessionStats(waiting, new AtomicLong(System.nanoTime()), queueDepth, rejections);
+    }
+
+    private record SessionStats(AtomicInteger waiting, AtomicLong lastUsedNanos, Gauge queueDepth, Counter rejections) {
+    }
+
+    /**
+     * Permisos de un escaneo admitido; se devuelven una sola vez aunque se libere antes de terminar.
+     */
+    private final class Permit {
+
+        private final Semaphore stripe;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore stripe) {
+            this.stripe = stripe;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                global.release();
+                stripe.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.exception.AlreadyRegisteredException;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.OutsideGeofenceException;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.SessionInactiveException;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.TokenExpiredException;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrToken;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resultado de validar un escaneo. Los rechazos esperados son valores, no excepciones: la
+ * sincronización los convierte en resultados por elemento y solo la validación individual los
+ * lanza, una vez, al devolver la respuesta. Esas excepciones no capturan el stack trace.
+ */
+public sealed interface ScanOutcome {
+
+    record Accepted(ActiveQrToken qrToken, double distance, int trustScore, String sensorStatus) implements ScanOutcome {
+    }
+
+    sealed interface Rejected extends ScanOutcome {
+
+        String errorCode();
+
+        String message();
+
+        /**
+         * ID de la asistencia existente, solo para duplicados.
+         */
+        default UUID attendanceId() {
+            return null;
+        }
+
+        RuntimeException toException();
+    }
+
+    record Expired() implements Rejected {
+
+        @Override
+        public String errorCode() {
+            return "TOKEN_EXPIRED";
+        }
+
+        @Override
+        public String message() {
+            return "El código QR ha expirado";
+        }
+
+        @Override
+        public RuntimeException toException() {
+            return new TokenExpiredException(message());
+        }
+    }
+
+    record Inactive(LocalDateTime endTime) implements Rejected {
+
+        @Override
+        public String errorCode() {
+            return "SESSION_INACTIVE";
+        }
+
+        @Override
+        public String message() {
+            return "La sesión ha finalizado";
+        }
+
+        @Override
+        public RuntimeException toException() {
+            return new SessionInactiveException(message(), endTime);
+        }
+    }
+
+    record Outside(String geofenceName, double distance, int radiusMeters) implements Rejected {
+
+        @Override
+        public String errorCode() {
+            return "OUTSIDE_GEOFENCE";
+        }
+
+        @Override
+        public String message() {
+            return "Debes estar dentro de " + geofenceName + " para registrar asistencia";
+        }
+
+        @Override
+        public RuntimeException toException() {
+            return new OutsideGeofenceException(message(), geofenceName, distance, radiusMeters);
+        }
+    }
+
+    record Duplicate(UUID attendanceId, LocalDateTime registeredAt) implements Rejected {
+
+        @Override
+        public String errorCode() {
+            return "ALREADY_REGISTERED";
+        }
+
+        @Override
+        public String message() {
+            return "Ya has registrado tu asistencia en esta sesión";
+        }
+
+        @Override
+        public RuntimeException toException() {
+            return new AlreadyRegisteredException(message(), attendanceId, registeredAt);
+        }
+    }
+}
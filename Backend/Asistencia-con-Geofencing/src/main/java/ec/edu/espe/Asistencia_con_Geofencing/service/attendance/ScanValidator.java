@@ -0,0 +1,74 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrToken;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Reglas de validación de un escaneo compartidas por la validación individual y la sincronización
+ * offline. No lanza excepciones ni consulta la base de datos: los duplicados se resuelven al insertar.
+ */
+@Component
+public class ScanValidator {
+
+    private static final ScanOutcome.Expired EXPIRED = new ScanOutcome.Expired();
+
+    /**
+     * @param qrToken token resuelto, o null si no existe o expiró
+     */
+    public ScanOutcome evaluate(ActiveQrToken qrToken, BigDecimal latitude, BigDecimal longitude) {
+        if (qrToken == null) {
+            return EXPIRED;
+        }
+        if (!qrToken.isSessionActive()) {
+            return new ScanOutcome.Inactive(qrToken.getSessionEndTime());
+        }
+
+        GeofenceShape shape = qrToken.getGeofenceShape();
+        double distance = shape.distanceMeters(latitude.doubleValue(), longitude.doubleValue());
+        if (!shape.isWithin(distance)) {
+            return new ScanOutcome.Outside(qrToken.getGeofenceName(), distance, shape.allowedDistanceMeters());
+        }
+
+        return new ScanOutcome.Accepted(qrToken, distance, calculateTrustScoreFromDistance(distance),
+                locationInfo(distance));
+    }
+
+    private String locationInfo(double distance) {
+        return String.format("{\"distance\":%.2f,\"within_zone\":true}", distance);
+    }
+
+    /**
+     * Estado de sensores de una asistencia aceptada tras el análisis de sensores.
+     */
+    public String sensorStatus(double distance, String sensorValidationLevel) {
+        return String.format("{\"distance\":%.2f,\"within_zone\":true,\"sensors\":\"%s\"}",
+                distance, sensorValidationLevel);
+    }
+
+    /**
+     * Calcula el trust score basado únicamente en la distancia GPS a la zona.
+     * Solo se llama para escaneos aceptados, que siempre están dentro del perímetro.
+     *
+     * @param distance Distancia en metros a la zona
+     * @return Score de 0-100
+     */
+    private int calculateTrustScoreFromDistance(double distance) {
+        if (distance <= 50) {
+            return 100; // Perfecto - dentro de la zona
+        }
+
+        // Zonas de radio amplio: dentro del perímetro pero lejos del centro
+        if (distance <= 100) {
+            return 55; // Sospechoso pero aceptable - distancia media
+        }
+
+        if (distance <= 200) {
+            return 30; // Sospechoso - lejos
+        }
+
+        return 10; // Muy sospechoso - muy lejos (>200m)
+    }
+}
@@ -0,0 +1,153 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.SensorDataDTO;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SensorValidationResult;
+import ec.edu.espe.Asistencia_con_Geofencing.model.SensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorEventRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.service.sensor.SensorPayload;
+import ec.edu.espe.Asistencia_con_Geofencing.service.sensor.SensorValidationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Etapa asíncrona de análisis de sensores para asistencias ya registradas.
+ *
+ * El escaneo responde con el trust score calculado solo con la distancia; después del commit
+ * esta etapa guarda las lecturas como {@link SensorEvent}, las analiza con
+ * {@link SensorValidationService} y actualiza {@code trustScore} y {@code sensorStatus} con el
+ * resultado combinado. Corre en {@code sensorScoringExecutor} (pool y cola acotados): si la cola
+ * está llena la tarea se descarta y la asistencia conserva el score de ubicación.
+ */
+@Slf4j
+@Component
+public class SensorScoringStage {
+
+    private static final double LOCATION_WEIGHT = 0.6;
+    private static final double SENSOR_WEIGHT = 0.4;
+
+    private final SensorValidationService sensorValidationService;
+    private final SensorEventRepository sensorEventRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final ScanValidator scanValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final boolean enabled;
+
+    private final Counter scored;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer latency;
+
+    public SensorScoringStage(SensorValidationService sensorValidationService,
+                              SensorEventRepository sensorEventRepository,
+                              AttendanceRepository attendanceRepository,
+                              ScanValidator scanValidator,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Qualifier("sensorScoringExecutor") ThreadPoolTaskExecutor executor,
+                              @Value("${attendance.sensor-scoring.enabled:true}") boolean enabled) {
+        this.sensorValidationService = sensorValidationService;
+        this.sensorEventRepository = sensorEventRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.scanValidator = scanValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.enabled = enabled;
+
+        Gauge.builder("attendance.sensor_scoring.queue.depth", executor,
+                pool -> pool.getThreadPoolExecutor().getQueue().size()).register(meterRegistry);
+        this.scored = Counter.builder("attendance.sensor_scoring.tasks").tag("result", "scored").register(meterRegistry);
+        this.dropped = Counter.builder("attendance.sensor_scoring.tasks").tag("result", "dropped").register(meterRegistry);
+        this.failed = Counter.builder("attendance.sensor_scoring.tasks").tag("result", "failed").register(meterRegistry);
+        this.latency = Timer.builder("attendance.sensor_scoring.latency").register(meterRegistry);
+    }
+
+    /**
+     * Programa el análisis de sensores de una asistencia aceptada. Si hay una transacción activa
+     * se encola al confirmarse; si no, la asistencia ya es durable y se encola de inmediato.
+     */
+    public void submit(UUID attendanceId, UUID sessionId, UUID studentId, ScanOutcome.Accepted accepted,
+                       List<SensorDataDTO> sensorData) {
+        if (!enabled || sensorData == null || sensorData.isEmpty()) {
+            return;
+        }
+        Task task = new Task(attendanceId, sessionId, studentId, accepted.distance(), accepted.trustScore(),
+                List.copyOf(sensorData));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(task);
+                }
+            });
+        } else {
+            enqueue(task);
+        }
+    }
+
+    private void enqueue(Task task) {
+        try {
+            executor.execute(() -> latency.record(() -> process(task)));
+        } catch (TaskRejectedException e) {
+            dropped.increment();
+            log.warn("Cola de análisis de sensores llena; asistencia {} conserva el score de ubicación",
+                    task.attendanceId());
+        }
+    }
+
+    private void process(Task task) {
+        try {
+            SensorValidationResult result = sensorValidationService.validateSensorData(task.sensorData());
+            int trustScore = (int) Math.round(task.locationScore() * LOCATION_WEIGHT
+                    + result.getTrustScore() * SENSOR_WEIGHT);
+            String sensorStatus = scanValidator.sensorStatus(task.distance(), result.getValidationLevel());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                saveSensorEvents(task);
+                attendanceRepository.updateTrustScore(task.attendanceId(), trustScore, sensorStatus);
+            });
+            scored.increment();
+            log.debug("Sensores de asistencia {}: {} ({}), trust score {}",
+                    task.attendanceId(), result.getValidationLevel(), result.getTrustScore(), trustScore);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Error analizando sensores de la asistencia {}: {}", task.attendanceId(), e.getMessage());
+        }
+    }
+
+    private void saveSensorEvents(Task task) {
+        LocalDateTime now = LocalDateTime.now();
+        SensorPayload payload = new SensorPayload();
+        sensorEventRepository.insertAll(task.sensorData().stream()
+                .map(data -> payload.decode(data.getType(), data.getValue())
+                        .userId(task.studentId())
+                        .sessionId(task.sessionId())
+                        .attendanceId(task.attendanceId())
+                        .deviceTime(data.getDeviceTime())
+                        .serverTime(now)
+                        .build())
+                .toList());
+    }
+
+    private record Task(UUID attendanceId, UUID sessionId, UUID studentId, double distance, int locationScore,
+                        List<SensorDataDTO> sensorData) {
+    }
+}
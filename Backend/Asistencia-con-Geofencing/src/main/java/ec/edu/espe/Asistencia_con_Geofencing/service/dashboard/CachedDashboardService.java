@@ -0,0 +1,49 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.DashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SessionStatisticsResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link DashboardService} que responde los dashboards de estudiante y docente desde
+ * {@link DashboardCache}. Un acierto no abre transacción ni consulta la base de datos; un fallo
+ * delega en {@link DashboardServiceImpl}.
+ */
+@Primary
+@Service
+@RequiredArgsConstructor
+public class CachedDashboardService implements DashboardService {
+
+    private final DashboardServiceImpl delegate;
+    private final DashboardCache dashboardCache;
+
+    @Override
+    public DashboardResponse getStudentDashboard(UUID studentId) {
+        return dashboardCache.getStudent(studentId, () -> delegate.getStudentDashboard(studentId));
+    }
+
+    @Override
+    public SessionStatisticsResponse getSessionStatistics(UUID sessionId, UUID teacherId) {
+        return delegate.getSessionStatistics(sessionId, teacherId);
+    }
+
+    @Override
+    public TeacherDashboardResponse getTeacherDashboard(UUID teacherId) {
+        return dashboardCache.getTeacher(teacherId, () -> delegate.getTeacherDashboard(teacherId));
+    }
+
+    @Override
+    public List<AttendanceSeriesPoint> getTeacherAttendanceSeries(UUID teacherId, TimeGranularity granularity,
+                                                                  LocalDate from, LocalDate to) {
+        return delegate.getTeacherAttendanceSeries(teacherId, granularity, from, to);
+    }
+}
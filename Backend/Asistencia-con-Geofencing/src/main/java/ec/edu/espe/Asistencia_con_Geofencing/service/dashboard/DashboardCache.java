@@ -0,0 +1,165 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.DashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché local (por nodo) de los dashboards de estudiante y docente, por usuario.
+ *
+ * Cada entrada vive como máximo {@code dashboard.cache.ttl-seconds} y, al superar
+ * {@code dashboard.cache.max-entries} por tipo, se descarta la usada hace más tiempo. Los cambios
+ * que afectan a un dashboard la invalidan mediante {@link DashboardInvalidations}, también en los
+ * demás nodos. Un dashboard calculado mientras se invalidaba su usuario no se guarda: podría
+ * reflejar el estado anterior al cambio.
+ */
+@Component
+public class DashboardCache {
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Region<DashboardResponse> students;
+    private final Region<TeacherDashboardResponse> teachers;
+    // Se incrementa al invalidar cualquier usuario de la franja
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final Counter expiredEvictions;
+    private final Counter sizeEvictions;
+    private final Counter invalidatedEvictions;
+
+    public DashboardCache(MeterRegistry meterRegistry,
+                          @Value("${dashboard.cache.enabled:true}") boolean enabled,
+                          @Value("${dashboard.cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${dashboard.cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.expiredEvictions = Counter.builder("dashboard.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("dashboard.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.invalidatedEvictions = Counter.builder("dashboard.cache.evictions").tag("cause", "invalidated").register(meterRegistry);
+        this.students = new Region<>("student", maxEntries, meterRegistry);
+        this.teachers = new Region<>("teacher", maxEntries, meterRegistry);
+    }
+
+    public DashboardResponse getStudent(UUID studentId, Supplier<DashboardResponse> loader) {
+        return get(students, studentId, loader);
+    }
+
+    public TeacherDashboardResponse getTeacher(UUID teacherId, Supplier<TeacherDashboardResponse> loader) {
+        return get(teachers, teacherId, loader);
+    }
+
+    /**
+     * Descarta de este nodo los dashboards de los usuarios indicados.
+     */
+    public void evict(Collection<UUID> userIds) {
+        for (UUID userId : userIds) {
+            versions.incrementAndGet(stripe(userId));
+            int removed = students.remove(userId) + teachers.remove(userId);
+            invalidatedEvictions.increment(removed);
+        }
+    }
+
+    private <V> V get(Region<V> region, UUID userId, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        V cached = region.get(userId, now);
+        if (cached != null) {
+            region.hits.increment();
+            return cached;
+        }
+        region.misses.increment();
+
+        long version = versions.get(stripe(userId));
+        V value = loader.get();
+        region.put(userId, value, now + ttlNanos, () -> versions.get(stripe(userId)) == version);
+        return value;
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), VERSION_STRIPES);
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    /**
+     * Entradas de un tipo de dashboard en orden de acceso, acotadas por tamaño.
+     */
+    private final class Region<V> {
+
+        private final Map<UUID, Entry<V>> entries;
+        private final Counter hits;
+        private final Counter misses;
+
+        private Region(String name, int maxEntries, MeterRegistry meterRegistry) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry<V>> eldest) {
+                    if (size() <= maxEntries) {
+                        return false;
+                    }
+                    sizeEvictions.increment();
+                    return true;
+                }
+            };
+            this.hits = Counter.builder("dashboard.cache.lookups").tag("cache", name).tag("result", "hit").register(meterRegistry);
+            this.misses = Counter.builder("dashboard.cache.lookups").tag("cache", name).tag("result", "miss").register(meterRegistry);
+            Gauge.builder("dashboard.cache.size", this, Region::size).tag("cache", name).register(meterRegistry);
+        }
+
+        synchronized V get(UUID userId, long now) {
+            Entry<V> entry = entries.get(userId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtNanos() - now <= 0) {
+                entries.remove(userId);
+                expiredEvictions.increment();
+                return null;
+            }
+            return entry.value();
+        }
+
+        // La condición se evalúa bajo el mismo lock que remove: una invalidación no puede colarse entre ambas
+        synchronized void put(UUID userId, V value, long expiresAtNanos, BooleanSupplier stillValid) {
+            if (stillValid.getAsBoolean()) {
+                entries.put(userId, new Entry<>(value, expiresAtNanos));
+            }
+        }
+
+        synchronized int remove(UUID userId) {
+            return entries.remove(userId) != null ? 1 : 0;
+        }
+
+        synchronized int size() {
+            // Purga de paso las entradas expiradas para que el tamaño reportado sea real
+            long now = System.nanoTime();
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAtNanos() - now <= 0) {
+                    iterator.remove();
+                    expiredEvictions.increment();
+                }
+            }
+            return entries.size();
+        }
+    }
+}
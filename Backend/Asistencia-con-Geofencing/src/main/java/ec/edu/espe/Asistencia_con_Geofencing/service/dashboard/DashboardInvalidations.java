@@ -0,0 +1,132 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.DashboardInvalidation;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.DashboardInvalidationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Invalidación de {@link DashboardCache} en todos los nodos.
+ *
+ * Cada cambio que afecta a un dashboard registra una fila en {@code dashboard_invalidations} en su
+ * propia transacción (las asistencias lo hacen en la sentencia que las inserta, ver
+ * {@code AttendanceRepositoryCustomImpl}). Cada nodo lee las filas nuevas cada
+ * {@code dashboard.cache.invalidation-poll-ms} y descarta los dashboards afectados; el nodo que hizo
+ * el cambio los descarta además al confirmarse la transacción.
+ *
+ * Cada lectura pide las filas con un id mayor que el último aplicado. Como una transacción puede
+ * confirmarse después de otra que obtuvo un id mayor, también vuelve a pedir las filas de los últimos
+ * {@code invalidation-overlap-seconds} y omite las ya aplicadas. Tanto el id inicial como la ventana se
+ * toman de la base de datos, nunca del reloj del nodo.
+ */
+@Slf4j
+@Component
+public class DashboardInvalidations {
+
+    private final DashboardInvalidationRepository invalidationRepository;
+    private final DashboardCache dashboardCache;
+    private final long overlapSeconds;
+    private final long retentionMinutes;
+    private final Counter applied;
+
+    // Filas ya aplicadas dentro de la ventana de solapamiento, con su hora de creación
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    // Último id aplicado y hora de creación más reciente leída; se inicializan en la primera lectura
+    private long lastId = -1;
+    private LocalDateTime cursor;
+
+    public DashboardInvalidations(DashboardInvalidationRepository invalidationRepository,
+                                  DashboardCache dashboardCache,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${dashboard.cache.invalidation-overlap-seconds:30}") long overlapSeconds,
+                                  @Value("${dashboard.cache.invalidation-retention-minutes:60}") long retentionMinutes) {
+        this.invalidationRepository = invalidationRepository;
+        this.dashboardCache = dashboardCache;
+        this.overlapSeconds = overlapSeconds;
+        this.retentionMinutes = retentionMinutes;
+        this.applied = Counter.builder("dashboard.cache.invalidations.applied").register(meterRegistry);
+    }
+
+    /**
+     * Invalida los dashboards de los usuarios indicados. Dentro de una transacción, el registro se
+     * confirma o se descarta junto con el cambio.
+     */
+    public void invalidate(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = Set.copyOf(userIds);
+        invalidationRepository.insertAll(ids);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dashboardCache.evict(ids);
+                }
+            });
+        } else {
+            dashboardCache.evict(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.cache.invalidation-poll-ms:1000}")
+    public synchronized void poll() {
+        try {
+            if (lastId < 0) {
+                // La caché arranca vacía: las invalidaciones anteriores al arranque no hacen falta
+                cursor = invalidationRepository.databaseNow();
+                lastId = invalidationRepository.findMaxId();
+                return;
+            }
+            List<DashboardInvalidation> rows = invalidationRepository
+                    .findNewerThan(lastId, cursor.minusSeconds(overlapSeconds));
+
+            Set<UUID> userIds = new HashSet<>();
+            for (DashboardInvalidation row : rows) {
+                if (seen.putIfAbsent(row.getId(), row.getCreatedAt()) == null) {
+                    userIds.add(row.getUserId());
+                }
+                lastId = Math.max(lastId, row.getId());
+                if (row.getCreatedAt().isAfter(cursor)) {
+                    cursor = row.getCreatedAt();
+                }
+            }
+            LocalDateTime windowStart = cursor.minusSeconds(overlapSeconds);
+            seen.values().removeIf(createdAt -> createdAt.isBefore(windowStart));
+
+            if (!userIds.isEmpty()) {
+                dashboardCache.evict(userIds);
+                applied.increment(userIds.size());
+            }
+        } catch (Exception e) {
+            log.error("Error leyendo invalidaciones de dashboard", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.cache.invalidation-cleanup-ms:600000}")
+    public void deleteOld() {
+        try {
+            int deleted = invalidationRepository.deleteCreatedBefore(
+                    invalidationRepository.databaseNow().minusMinutes(retentionMinutes));
+            log.debug("Invalidaciones de dashboard eliminadas: {}", deleted);
+        } catch (Exception e) {
+            log.error("Error eliminando invalidaciones de dashboard antiguas", e);
+        }
+    }
+}
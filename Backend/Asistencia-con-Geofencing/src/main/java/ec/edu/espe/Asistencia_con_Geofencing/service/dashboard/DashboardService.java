@@ -1,8 +1,13 @@
 package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.DashboardResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SessionStatisticsResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
+
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 public interface DashboardService {
@@ -10,5 +15,7 @@ public interface DashboardService {
     DashboardResponse getStudentDashboard(UUID studentId);
     SessionStatisticsResponse getSessionStatistics(UUID sessionId, UUID teacherId);
     TeacherDashboardResponse getTeacherDashboard(UUID teacherId);
+    List<AttendanceSeriesPoint> getTeacherAttendanceSeries(UUID teacherId, TimeGranularity granularity,
+                                                           LocalDate from, LocalDate to);
 
 }
@@ -1,15 +1,24 @@
 package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.AttendanceSeriesPoint;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.dashboard.SessionAttendanceCount;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.DashboardResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SessionStatisticsResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.BadRequestException;
 import ec.edu.espe.Asistencia_con_Geofencing.exception.ResourceNotFoundException;
 import ec.edu.espe.Asistencia_con_Geofencing.exception.UnauthorizedException;
 import ec.edu.espe.Asistencia_con_Geofencing.model.Attendance;
 import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.SessionStatistics;
+import ec.edu.espe.Asistencia_con_Geofencing.model.StudentStatistics;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.TimeGranularity;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceDailyCountRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.NotificationRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SessionStatisticsRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.StudentStatisticsRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -26,22 +35,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService {
 
+    private static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyy-MM");
+
     private final AttendanceRepository attendanceRepository;
     private final NotificationRepository notificationRepository;
     private final AttendanceSessionRepository sessionRepository;
+    private final SessionStatisticsRepository statisticsRepository;
+    private final StudentStatisticsRepository studentStatisticsRepository;
+    private final AttendanceDailyCountRepository dailyCountRepository;
+
     @Override
     @Transactional(readOnly = true)
     public DashboardResponse getStudentDashboard(UUID studentId) {
-        Long attendedSessions = attendanceRepository.countAttendedSessionsByStudentId(studentId);
-        long totalSessions = sessionRepository.count();
-        Double attendanceRate = totalSessions > 0
-                ? Math.round((attendedSessions.doubleValue() / totalSessions) * 10000.0) / 100.0
-                : 0.0;
+        StudentStatistics statistics = studentStatisticsRepository.findById(studentId)
+                .orElseGet(() -> StudentStatistics.empty(studentId));
 
         DashboardResponse.Overview overview = DashboardResponse.Overview.builder()
-                .totalSessions(totalSessions)
-                .attendedSessions(attendedSessions)
-                .attendanceRate(attendanceRate)
+                .totalSessions((long) statistics.getEligibleSessions())
+                .attendedSessions((long) statistics.getAttendedSessions())
+                .attendanceRate(Math.round(statistics.attendanceRate() * 100.0) / 100.0)
                 .build();
 
         List<Attendance> recentAttendances = attendanceRepository.findByStudentIdAndDateRange(
@@ -62,15 +74,9 @@ public class DashboardServiceImpl implements DashboardService {
                 .collect(Collectors.toList());
 
         List<Attendance> pendingSync = attendanceRepository.findByStudentIdAndIsSyncedFalse(studentId);
-        LocalDateTime lastSyncAt = recentAttendances.stream()
-                .filter(Attendance::getIsSynced)
-                .map(Attendance::getServerTime)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
         DashboardResponse.SyncStatus syncStatus = DashboardResponse.SyncStatus.builder()
                 .pendingSync(pendingSync.size())
-                .lastSyncAt(lastSyncAt)
+                .lastSyncAt(statistics.getLastSyncAt())
                 .build();
         int unreadCount = notificationRepository.findUnreadByUserId(studentId).size();
 
@@ -95,147 +101,113 @@ public class DashboardServiceImpl implements DashboardService {
             throw new UnauthorizedException("No tienes permiso para ver esta sesión");
         }
 
-        List<Attendance> attendances =
-                attendanceRepository.findBySessionId(sessionId);
-
-        return buildStatistics(session, attendances);
-    }
-
-    private SessionStatisticsResponse buildStatistics(
-            AttendanceSession session,
-            List<Attendance> attendances) {
+        // Contadores mantenidos al insertar cada asistencia: una búsqueda por clave primaria
+        SessionStatistics statistics = statisticsRepository.findById(sessionId)
+                .orElseGet(() -> SessionStatistics.empty(sessionId));
 
         Duration duration = session.getEndTime() != null
                 ? Duration.between(session.getStartTime(), session.getEndTime())
                 : null;
 
-        long onTime = attendances.stream()
-                .filter(a -> a.getDeviceTime()
-                        .isBefore(session.getStartTime().plusMinutes(5)))
-                .count();
-
-        long late = attendances.size() - onTime;
-
-        double avgDelay = attendances.stream()
-                .mapToLong(a -> Duration
-                        .between(a.getDeviceTime(), a.getServerTime())
-                        .getSeconds())
-                .average()
-                .orElse(0);
-
         return new SessionStatisticsResponse(
                 session,
                 duration,
-                attendances.size(),
-                onTime,
-                late,
-                avgDelay
+                statistics.getTotalAttendances(),
+                statistics.getOnTimeCount(),
+                statistics.getTotalAttendances() - statistics.getOnTimeCount(),
+                statistics.averageSyncDelaySeconds()
         );
     }
 
+    /**
+     * Dashboard del docente a partir de tres consultas agregadas (sesiones con sus contadores,
+     * estudiantes distintos y asistencias por mes desde {@code attendance_daily_counts}), sin cargar
+     * entidades de asistencia: el número de consultas no depende de la cantidad de sesiones.
+     */
     @Override
     @Transactional(readOnly = true)
     public TeacherDashboardResponse getTeacherDashboard(UUID teacherId) {
-        List<AttendanceSession> allSessions = sessionRepository.findByTeacherId(teacherId, PageRequest.of(0, Integer.MAX_VALUE)).getContent();
-        
-        int totalSessions = allSessions.size();
-        long activeSessions = allSessions.stream()
-                .filter(AttendanceSession::getActive)
-                .count();
+        // Ordenadas de la más reciente a la más antigua
+        List<SessionAttendanceCount> sessions = sessionRepository.countAttendancesByTeacherSessions(teacherId);
+        long uniqueStudents = attendanceRepository.countDistinctStudentsByTeacherId(teacherId);
 
-        Set<UUID> uniqueStudents = new HashSet<>();
-        List<Attendance> allAttendances = new ArrayList<>();
-        
-        for (AttendanceSession session : allSessions) {
-            List<Attendance> sessionAttendances = attendanceRepository.findBySessionId(session.getId());
-            allAttendances.addAll(sessionAttendances);
-            sessionAttendances.forEach(a -> uniqueStudents.add(a.getStudent().getId()));
-        }
+        int totalSessions = sessions.size();
+        long activeSessions = sessions.stream()
+                .filter(session -> Boolean.TRUE.equals(session.getActive()))
+                .count();
+        long totalAttendances = sessions.stream()
+                .mapToInt(SessionAttendanceCount::getAttendances)
+                .sum();
 
-        int totalStudentsEnrolled = uniqueStudents.size();
-        double averageAttendanceRate = 0.0;
-        if (!allSessions.isEmpty()) {
-            List<Double> rates = allSessions.stream()
-                    .map(session -> {
-                        List<Attendance> sessionAttendances = attendanceRepository.findBySessionId(session.getId());
-                        return sessionAttendances.size();
-                    })
-                    .map(count -> count.doubleValue())
-                    .collect(Collectors.toList());
-            
-            double totalAttendances = rates.stream().mapToDouble(Double::doubleValue).sum();
-            double maxPossible = totalStudentsEnrolled * totalSessions;
-            averageAttendanceRate = maxPossible > 0 ? Math.round((totalAttendances / maxPossible) * 10000.0) / 100.0 : 0.0;
-        }
+        double maxPossible = (double) uniqueStudents * totalSessions;
+        double averageAttendanceRate = maxPossible > 0
+                ? Math.round((totalAttendances / maxPossible) * 10000.0) / 100.0
+                : 0.0;
 
-        List<TeacherDashboardResponse.SessionSummary> recentSessions = allSessions.stream()
-                .sorted((s1, s2) -> s2.getStartTime().compareTo(s1.getStartTime()))
+        List<TeacherDashboardResponse.SessionSummary> recentSessions = sessions.stream()
                 .limit(5)
-                .map(session -> {
-                    List<Attendance> sessionAttendances = attendanceRepository.findBySessionId(session.getId());
-                    double rate = uniqueStudents.size() > 0 
-                            ? Math.round((sessionAttendances.size() * 100.0 / uniqueStudents.size()) * 100.0) / 100.0 
-                            : 0.0;
-                    
-                    return TeacherDashboardResponse.SessionSummary.builder()
-                            .sessionId(session.getId().toString())
-                            .sessionName(session.getName())
-                            .zoneName(session.getGeofence().getName())
-                            .date(session.getStartTime().toLocalDate())
-                            .totalAttendances(sessionAttendances.size())
-                            .attendanceRate(rate)
-                            .isActive(session.getActive())
-                            .build();
-                })
+                .map(session -> TeacherDashboardResponse.SessionSummary.builder()
+                        .sessionId(session.getSessionId().toString())
+                        .sessionName(session.getSessionName())
+                        .zoneName(session.getZoneName())
+                        .date(session.getStartTime().toLocalDate())
+                        .totalAttendances(session.getAttendances())
+                        .attendanceRate(sessionRate(session, uniqueStudents))
+                        .isActive(session.getActive())
+                        .build())
                 .toList();
 
-        Map<String, Integer> attendanceByMonth = allAttendances.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getDeviceTime().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                        Collectors.summingInt(a -> 1)
+        Map<String, Integer> attendanceByMonth = dailyCountRepository.findSeries(teacherId, TimeGranularity.MONTH, null, null)
+                .stream()
+                .collect(Collectors.toMap(
+                        month -> MONTH_KEY.format(month.getPeriodStart()),
+                        month -> month.getAttendances().intValue()
                 ));
 
-        Map<String, Double> attendanceRateBySession = allSessions.stream()
+        Map<String, Double> attendanceRateBySession = sessions.stream()
                 .collect(Collectors.toMap(
-                        AttendanceSession::getName,
-                        session -> {
-                            List<Attendance> sessionAttendances = attendanceRepository.findBySessionId(session.getId());
-                            return uniqueStudents.size() > 0 
-                                    ? Math.round((sessionAttendances.size() * 100.0 / uniqueStudents.size()) * 100.0) / 100.0
-                                    : 0.0;
-                        },
+                        SessionAttendanceCount::getSessionName,
+                        session -> sessionRate(session, uniqueStudents),
                         (rate1, rate2) -> Math.round(((rate1 + rate2) / 2) * 100.0) / 100.0
                 ));
 
-        int totalAttendances = allAttendances.size();
-        
-        LocalDate lastSessionDate = allSessions.stream()
-                .map(AttendanceSession::getStartTime)
-                .max(LocalDateTime::compareTo)
-                .map(LocalDateTime::toLocalDate)
-                .orElse(null);
-
-        String mostActiveSession = allSessions.stream()
-                .max((s1, s2) -> {
-                    int count1 = attendanceRepository.findBySessionId(s1.getId()).size();
-                    int count2 = attendanceRepository.findBySessionId(s2.getId()).size();
-                    return Integer.compare(count1, count2);
-                })
-                .map(AttendanceSession::getName)
+        LocalDate lastSessionDate = sessions.isEmpty()
+                ? null
+                : sessions.get(0).getStartTime().toLocalDate();
+
+        String mostActiveSession = sessions.stream()
+                .max(Comparator.comparingInt(SessionAttendanceCount::getAttendances))
+                .map(SessionAttendanceCount::getSessionName)
                 .orElse("N/A");
 
         return TeacherDashboardResponse.builder()
                 .totalSessions(totalSessions)
                 .activeSessions((int) activeSessions)
-                .totalStudentsEnrolled(totalStudentsEnrolled)
+                .totalStudentsEnrolled((int) uniqueStudents)
                 .averageAttendanceRate(averageAttendanceRate)
                 .recentSessions(recentSessions)
                 .attendanceByMonth(attendanceByMonth)
                 .attendanceRateBySession(attendanceRateBySession)
-                .totalAttendances(totalAttendances)
+                .totalAttendances((int) totalAttendances)
                 .lastSessionDate(lastSessionDate)
                 .mostActiveSession(mostActiveSession)
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<AttendanceSeriesPoint> getTeacherAttendanceSeries(UUID teacherId, TimeGranularity granularity,
+                                                                  LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+        return dailyCountRepository.findSeries(teacherId, granularity, from, to);
+    }
+
+    private double sessionRate(SessionAttendanceCount session, long uniqueStudents) {
+        return uniqueStudents > 0
+                ? Math.round((session.getAttendances() * 100.0 / uniqueStudents) * 100.0) / 100.0
+                : 0.0;
+    }
+
 }
\ No newline at end of file
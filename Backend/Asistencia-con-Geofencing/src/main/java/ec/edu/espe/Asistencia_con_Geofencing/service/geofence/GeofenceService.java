@@ -1,7 +1,9 @@
 package ec.edu.espe.Asistencia_con_Geofencing.service.geofence;
 
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.BatchValidateLocationRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.CreateGeofenceZoneRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.ValidateLocationRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.BatchValidateLocationResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.GeofenceZoneResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ValidateLocationResponse;
 
@@ -16,6 +18,7 @@ public interface GeofenceService {
     List<GeofenceZoneResponse> getAllZones();
     GeofenceZoneResponse createZone(CreateGeofenceZoneRequest request);
     ValidateLocationResponse validateLocation(ValidateLocationRequest request);
+    BatchValidateLocationResponse validateLocations(BatchValidateLocationRequest request);
     double calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2);
     void deleteZone(UUID zoneId);
 }
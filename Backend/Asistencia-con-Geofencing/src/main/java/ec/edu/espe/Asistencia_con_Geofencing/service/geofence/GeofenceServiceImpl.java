@@ -2,27 +2,63 @@ package ec.edu.espe.Asistencia_con_Geofencing.service.geofence;
 
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.mapper.GeofenceMapper;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.BatchValidateLocationRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.CreateGeofenceZoneRequest;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.ValidateLocationRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.BatchValidateLocationResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.GeofenceZoneResponse;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.ValidateLocationResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.BadRequestException;
 import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.GeofenceZoneRepository;
-import lombok.RequiredArgsConstructor;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoDistance;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoPolygon;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class GeofenceServiceImpl implements GeofenceService {
 
     private final GeofenceZoneRepository geofenceZoneRepository;
-    private static final double EARTH_RADIUS_METERS = 6371000.0;
+    private final GeofenceZoneIndex geofenceZoneIndex;
+    private final LocationValidationCache locationValidationCache;
+    private final MeterRegistry meterRegistry;
+    private final Executor geofenceBatchExecutor;
+    private final int maxListedZones;
+    private final int batchChunkSize;
+
+    public GeofenceServiceImpl(GeofenceZoneRepository geofenceZoneRepository,
+                               GeofenceZoneIndex geofenceZoneIndex,
+                               LocationValidationCache locationValidationCache,
+                               MeterRegistry meterRegistry,
+                               @Qualifier("geofenceBatchExecutor") Executor geofenceBatchExecutor,
+                               @Value("${geofencing.index.max-listed-zones:20}") int maxListedZones,
+                               @Value("${geofencing.batch.chunk-size:500}") int batchChunkSize) {
+        this.geofenceZoneRepository = geofenceZoneRepository;
+        this.geofenceZoneIndex = geofenceZoneIndex;
+        this.locationValidationCache = locationValidationCache;
+        this.meterRegistry = meterRegistry;
+        this.geofenceBatchExecutor = geofenceBatchExecutor;
+        this.maxListedZones = maxListedZones;
+        this.batchChunkSize = batchChunkSize;
+    }
 
     @Override
     @Transactional(readOnly = true)
@@ -37,39 +73,60 @@ public class GeofenceServiceImpl implements GeofenceService {
     public GeofenceZoneResponse createZone(CreateGeofenceZoneRequest request) {
         GeofenceZone zone = new GeofenceZone();
         zone.setName(request.getName());
-        zone.setLatitude(request.getLatitude());
-        zone.setLongitude(request.getLongitude());
-        zone.setRadiusMeters(request.getRadiusMeters());
+        if (request.getVertices() != null) {
+            GeoPolygon polygon = toPolygon(request.getVertices());
+            zone.setLatitude(BigDecimal.valueOf(polygon.centerLatitude()).setScale(8, RoundingMode.HALF_UP));
+            zone.setLongitude(BigDecimal.valueOf(polygon.centerLongitude()).setScale(8, RoundingMode.HALF_UP));
+            zone.setRadiusMeters(polygon.boundingRadiusMeters());
+            zone.setPolygonVertices(polygon.encoded());
+        } else {
+            if (request.getLatitude() == null || request.getLongitude() == null || request.getRadiusMeters() == null) {
+                throw new BadRequestException("Latitud, longitud y radio son requeridos para una zona circular");
+            }
+            zone.setLatitude(request.getLatitude());
+            zone.setLongitude(request.getLongitude());
+            zone.setRadiusMeters(request.getRadiusMeters());
+        }
         zone = geofenceZoneRepository.save(zone);
+        geofenceZoneIndex.add(zone);
         return GeofenceMapper.toResponse(zone);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public ValidateLocationResponse validateLocation(ValidateLocationRequest request) {
-        List<Object[]> zonesWithDistance = geofenceZoneRepository
-                .findAllWithDistance(request.getLatitude(), request.getLongitude());
-
-        List<ValidateLocationResponse.ZoneDistanceInfo> allZones = zonesWithDistance.stream()
-                .map(row -> {
-                    java.util.UUID zoneId = java.util.UUID.fromString(row[0].toString());
-                    String zoneName = row[1].toString();
-                    Integer radiusMeters = ((Number) row[2]).intValue();
-                    Double distance = ((Number) row[3]).doubleValue();
-                    Boolean withinZone = distance <= radiusMeters;
-
-                    return ValidateLocationResponse.ZoneDistanceInfo.builder()
-                            .id(zoneId)
-                            .name(zoneName)
-                            .distance(distance)
-                            .withinZone(withinZone)
-                            .build();
-                })
+        long start = System.nanoTime();
+        double latitude = request.getLatitude().doubleValue();
+        double longitude = request.getLongitude().doubleValue();
+
+        Optional<LocationValidationCache.CellAnswer> cached = locationValidationCache.lookup(latitude, longitude);
+        List<GeofenceZoneIndex.ZoneMatch> matches;
+        boolean withinCampus;
+        if (cached.isPresent()) {
+            // La pertenencia vale para toda la celda; solo se recalculan las distancias
+            matches = cached.get().listedZones().stream()
+                    .map(zone -> new GeofenceZoneIndex.ZoneMatch(zone, zone.distanceTo(latitude, longitude),
+                            cached.get().insideZoneIds().contains(zone.id())))
+                    .sorted(Comparator.comparingDouble(GeofenceZoneIndex.ZoneMatch::distance))
+                    .toList();
+            withinCampus = cached.get().withinCampus();
+        } else {
+            matches = geofenceZoneIndex.nearest(latitude, longitude, maxListedZones);
+            withinCampus = !geofenceZoneIndex.containing(latitude, longitude).isEmpty();
+        }
+
+        List<ValidateLocationResponse.ZoneDistanceInfo> allZones = matches.stream()
+                .map(match -> ValidateLocationResponse.ZoneDistanceInfo.builder()
+                        .id(match.zone().id())
+                        .name(match.zone().name())
+                        .distance(match.distance())
+                        .withinZone(match.withinZone())
+                        .build())
                 .collect(Collectors.toList());
 
         ValidateLocationResponse.ZoneDistanceInfo nearest = allZones.isEmpty() ? null : allZones.get(0);
-        Boolean withinCampus = nearest != null && nearest.getWithinZone();
 
+        meterRegistry.timer("geofence.validation.latency", "cache", cached.isPresent() ? "hit" : "exact")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return ValidateLocationResponse.builder()
                 .withinCampus(withinCampus)
                 .nearestZone(nearest)
@@ -78,18 +135,79 @@ public class GeofenceServiceImpl implements GeofenceService {
     }
 
     @Override
-    public double calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
-        double lat1Rad = Math.toRadians(lat1.doubleValue());
-        double lat2Rad = Math.toRadians(lat2.doubleValue());
-        double deltaLat = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
-        double deltaLon = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
+    public BatchValidateLocationResponse validateLocations(BatchValidateLocationRequest request) {
+        double[] latitudes = request.getLatitudes();
+        double[] longitudes = request.getLongitudes();
+        if (latitudes.length != longitudes.length) {
+            throw new BadRequestException("Las latitudes y longitudes deben tener la misma cantidad de elementos");
+        }
+
+        // Todos los tramos usan la misma copia del índice
+        GeofenceZoneIndex.Snapshot snapshot = geofenceZoneIndex.snapshot();
+        int count = latitudes.length;
+        GeofenceZoneIndex.IndexedZone[] nearestZones = new GeofenceZoneIndex.IndexedZone[count];
+        double[] distances = new double[count];
+        boolean[] inside = new boolean[count];
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += batchChunkSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(count, from + batchChunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    List<GeofenceZoneIndex.ZoneMatch> nearest = snapshot.nearest(latitudes[i], longitudes[i], 1);
+                    if (!nearest.isEmpty()) {
+                        nearestZones[i] = nearest.get(0).zone();
+                        distances[i] = nearest.get(0).distance();
+                    } else {
+                        distances[i] = -1;
+                    }
+                    inside[i] = !snapshot.containing(latitudes[i], longitudes[i]).isEmpty();
+                }
+            }, geofenceBatchExecutor));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+
+        // Diccionario de zonas referenciadas: cada zona aparece una sola vez en la respuesta
+        Map<UUID, Integer> zonePositions = new LinkedHashMap<>();
+        List<String> zoneNames = new ArrayList<>();
+        int[] nearestZone = new int[count];
+        for (int i = 0; i < count; i++) {
+            GeofenceZoneIndex.IndexedZone zone = nearestZones[i];
+            if (zone == null) {
+                nearestZone[i] = -1;
+                continue;
+            }
+            nearestZone[i] = zonePositions.computeIfAbsent(zone.id(), id -> {
+                zoneNames.add(zone.name());
+                return zoneNames.size() - 1;
+            });
+        }
+
+        return BatchValidateLocationResponse.builder()
+                .count(count)
+                .zoneIds(new ArrayList<>(zonePositions.keySet()))
+                .zoneNames(zoneNames)
+                .nearestZone(nearestZone)
+                .distance(distances)
+                .inside(inside)
+                .build();
+    }
 
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                        Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+    private GeoPolygon toPolygon(List<CreateGeofenceZoneRequest.Vertex> vertices) {
+        double[] latitudes = new double[vertices.size()];
+        double[] longitudes = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            latitudes[i] = vertices.get(i).getLatitude().doubleValue();
+            longitudes[i] = vertices.get(i).getLongitude().doubleValue();
+        }
+        return GeoPolygon.of(latitudes, longitudes);
+    }
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS_METERS * c;
+    @Override
+    public double calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
+        return GeoDistance.haversineMeters(lat1.doubleValue(), lon1.doubleValue(),
+                lat2.doubleValue(), lon2.doubleValue());
     }
 
     @Override
@@ -97,6 +215,7 @@ public class GeofenceServiceImpl implements GeofenceService {
         geofenceZoneRepository.findById( zoneId).orElseThrow(() ->
             new IllegalArgumentException("Zona de geocerca no encontrada con ID: " + zoneId));
         geofenceZoneRepository.deleteById(zoneId);
+        geofenceZoneIndex.remove(zoneId);
     }
 
 }
\ No newline at end of file
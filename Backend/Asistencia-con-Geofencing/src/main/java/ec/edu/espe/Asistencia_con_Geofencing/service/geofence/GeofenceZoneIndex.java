@@ -0,0 +1,362 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.geofence;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.GeofenceZoneRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoDistance;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Índice espacial en memoria (por nodo) de las zonas de geocerca.
+ *
+ * Divide el mapa en celdas de {@code geofencing.index.cell-size-degrees} grados. Cada zona se
+ * registra en todas las celdas que toca su círculo (el envolvente en zonas poligonales), para
+ * responder "zonas que contienen el punto" revisando una sola celda, y en la celda de su centro,
+ * para buscar las k zonas más cercanas por anillos de celdas alrededor del punto. El índice es
+ * inmutable: crear o eliminar una zona publica una copia nueva, y un refresco periódico recoge los
+ * cambios hechos desde otros nodos.
+ * No contempla el antimeridiano (±180°).
+ */
+@Slf4j
+@Component
+public class GeofenceZoneIndex {
+
+    private static final double METERS_PER_DEGREE = Math.PI * GeoDistance.EARTH_RADIUS_METERS / 180.0;
+    private static final Comparator<ZoneMatch> BY_DISTANCE = Comparator.comparingDouble(ZoneMatch::distance);
+
+    private final GeofenceZoneRepository geofenceZoneRepository;
+    private final double cellSizeDegrees;
+    private volatile Snapshot snapshot;
+    private long version;
+
+    public GeofenceZoneIndex(GeofenceZoneRepository geofenceZoneRepository,
+                             @Value("${geofencing.index.cell-size-degrees:0.01}") double cellSizeDegrees) {
+        this.geofenceZoneRepository = geofenceZoneRepository;
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    public List<ZoneMatch> containing(double latitude, double longitude) {
+        return current().containing(latitude, longitude);
+    }
+
+    public List<IndexedZone> intersecting(double latitude, double longitude, double marginMeters) {
+        return current().intersecting(latitude, longitude, marginMeters);
+    }
+
+    public List<ZoneMatch> nearest(double latitude, double longitude, int limit) {
+        return current().nearest(latitude, longitude, limit);
+    }
+
+    public long version() {
+        return current().version();
+    }
+
+    /**
+     * Copia vigente del índice, para responder varias consultas sobre el mismo conjunto de zonas.
+     */
+    public Snapshot snapshot() {
+        return current();
+    }
+
+    /**
+     * Recarga el índice desde la base de datos para recoger cambios hechos en otros nodos.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.index.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        List<IndexedZone> zones = geofenceZoneRepository.findAll().stream()
+                .map(IndexedZone::of)
+                .toList();
+        publish(zones);
+        log.debug("Índice de geocercas cargado con {} zonas", zones.size());
+    }
+
+    public synchronized void add(GeofenceZone zone) {
+        List<IndexedZone> zones = new ArrayList<>(Arrays.asList(current().zones));
+        zones.removeIf(indexed -> indexed.id().equals(zone.getId()));
+        zones.add(IndexedZone.of(zone));
+        publish(zones);
+    }
+
+    public synchronized void remove(UUID zoneId) {
+        List<IndexedZone> zones = new ArrayList<>(Arrays.asList(current().zones));
+        if (zones.removeIf(indexed -> indexed.id().equals(zoneId))) {
+            publish(zones);
+        }
+    }
+
+    private void publish(List<IndexedZone> zones) {
+        snapshot = Snapshot.build(zones, cellSizeDegrees, ++version);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static long cellKey(int cellLat, int cellLon) {
+        return ((long) cellLat << 32) | (cellLon & 0xffffffffL);
+    }
+
+    public record IndexedZone(UUID id, String name, GeofenceShape shape) {
+
+        static IndexedZone of(GeofenceZone zone) {
+            return new IndexedZone(zone.getId(), zone.getName(), zone.getShape());
+        }
+
+        double latitude() {
+            return shape.center().latitude();
+        }
+
+        double longitude() {
+            return shape.center().longitude();
+        }
+
+        int radiusMeters() {
+            return shape.radiusMeters();
+        }
+
+        /**
+         * Distancia al centro; el radio de las zonas poligonales es el de su círculo envolvente.
+         */
+        double distanceTo(double lat, double lon) {
+            return GeoDistance.distanceMeters(shape.center(), lat, lon, shape.radiusMeters());
+        }
+
+        boolean contains(double lat, double lon, double centerDistance) {
+            return shape.polygon() != null ? shape.polygon().contains(lat, lon) : centerDistance <= shape.radiusMeters();
+        }
+    }
+
+    public record ZoneMatch(IndexedZone zone, double distance, boolean withinZone) {
+
+        static ZoneMatch of(IndexedZone zone, double latitude, double longitude) {
+            double distance = zone.distanceTo(latitude, longitude);
+            return new ZoneMatch(zone, distance, zone.contains(latitude, longitude, distance));
+        }
+    }
+
+    /**
+     * Copia inmutable del índice.
+     *
+     * @param version cambia cada vez que se publica una copia nueva
+     */
+    public record Snapshot(long version, double cellSize, IndexedZone[] zones, Map<Long, int[]> coverage,
+                           Map<Long, int[]> centers, int minCellLat, int maxCellLat, int minCellLon, int maxCellLon) {
+
+        /**
+         * Zonas cuyo radio incluye el punto, de la más cercana a la más lejana.
+         */
+        public List<ZoneMatch> containing(double latitude, double longitude) {
+            if (!GeoDistance.isValidCoordinate(latitude, longitude)) {
+                return List.of();
+            }
+            int[] candidates = coverage.get(cellKey(cell(latitude), cell(longitude)));
+            if (candidates == null) {
+                return List.of();
+            }
+
+            List<ZoneMatch> matches = new ArrayList<>(candidates.length);
+            for (int candidate : candidates) {
+                IndexedZone zone = zones[candidate];
+                double distance = zone.distanceTo(latitude, longitude);
+                if (zone.contains(latitude, longitude, distance)) {
+                    matches.add(new ZoneMatch(zone, distance, true));
+                }
+            }
+            matches.sort(BY_DISTANCE);
+            return matches;
+        }
+
+        /**
+         * Zonas cuyo círculo (envolvente) puede tocar el disco de radio {@code marginMeters} alrededor
+         * del punto. Es un superconjunto: las candidatas deben comprobarse con su forma.
+         */
+        public List<IndexedZone> intersecting(double latitude, double longitude, double marginMeters) {
+            if (!GeoDistance.isValidCoordinate(latitude, longitude)) {
+                return List.of();
+            }
+            double latSpan = marginMeters / METERS_PER_DEGREE;
+            double lonSpan = lonSpan(latitude, latSpan);
+
+            Set<Integer> seen = new HashSet<>();
+            List<IndexedZone> found = new ArrayList<>();
+            for (int cellLat = cell(latitude - latSpan); cellLat <= cell(latitude + latSpan); cellLat++) {
+                for (int cellLon = cell(longitude - lonSpan); cellLon <= cell(longitude + lonSpan); cellLon++) {
+                    int[] candidates = coverage.get(cellKey(cellLat, cellLon));
+                    if (candidates == null) {
+                        continue;
+                    }
+                    for (int candidate : candidates) {
+                        if (seen.add(candidate)) {
+                            found.add(zones[candidate]);
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Las {@code limit} zonas con centro más cercano al punto, ordenadas por distancia. Un punto
+         * fuera de rango no tiene zonas cercanas.
+         *
+         * Recorre anillos de celdas alrededor del punto mientras eso revise menos celdas que zonas
+         * hay; un punto lejos de todas las zonas necesitaría demasiados anillos y se resuelve
+         * recorriendo las zonas directamente.
+         */
+        public List<ZoneMatch> nearest(double latitude, double longitude, int limit) {
+            if (limit <= 0 || !GeoDistance.isValidCoordinate(latitude, longitude)) {
+                return List.of();
+            }
+            if (zones.length <= limit) {
+                return scanNearest(latitude, longitude, limit);
+            }
+
+            // Montículo de máximos: la cabeza es la peor de las k mejores encontradas
+            PriorityQueue<ZoneMatch> best = new PriorityQueue<>(limit, BY_DISTANCE.reversed());
+            int cellLat = cell(latitude);
+            int cellLon = cell(longitude);
+            int maxRing = Math.max(
+                    Math.max(Math.abs(cellLat - minCellLat), Math.abs(cellLat - maxCellLat)),
+                    Math.max(Math.abs(cellLon - minCellLon), Math.abs(cellLon - maxCellLon)));
+
+            long visitedCells = 0;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                if (best.size() == limit && minRingDistance(ring, latitude) > best.peek().distance()) {
+                    break;
+                }
+                visitedCells += ring == 0 ? 1 : 8L * ring;
+                if (visitedCells > zones.length) {
+                    return scanNearest(latitude, longitude, limit);
+                }
+                for (int dLat = -ring; dLat <= ring; dLat++) {
+                    boolean edgeRow = Math.abs(dLat) == ring;
+                    for (int dLon = -ring; dLon <= ring; dLon += edgeRow ? 1 : Math.max(1, 2 * ring)) {
+                        int[] cellCenters = centers.get(cellKey(cellLat + dLat, cellLon + dLon));
+                        if (cellCenters == null) {
+                            continue;
+                        }
+                        for (int index : cellCenters) {
+                            offer(best, limit, zones[index], latitude, longitude);
+                        }
+                    }
+                }
+            }
+
+            List<ZoneMatch> result = new ArrayList<>(best);
+            result.sort(BY_DISTANCE);
+            return result;
+        }
+
+        /**
+         * Búsqueda lineal sobre todas las zonas, en O(n log k).
+         */
+        private List<ZoneMatch> scanNearest(double latitude, double longitude, int limit) {
+            PriorityQueue<ZoneMatch> best = new PriorityQueue<>(Math.min(limit, Math.max(1, zones.length)),
+                    BY_DISTANCE.reversed());
+            for (IndexedZone zone : zones) {
+                offer(best, limit, zone, latitude, longitude);
+            }
+            List<ZoneMatch> result = new ArrayList<>(best);
+            result.sort(BY_DISTANCE);
+            return result;
+        }
+
+        private static void offer(PriorityQueue<ZoneMatch> best, int limit, IndexedZone zone,
+                                  double latitude, double longitude) {
+            double distance = zone.distanceTo(latitude, longitude);
+            if (best.size() < limit) {
+                best.add(new ZoneMatch(zone, distance, zone.contains(latitude, longitude, distance)));
+            } else if (distance < best.peek().distance()) {
+                best.poll();
+                best.add(new ZoneMatch(zone, distance, zone.contains(latitude, longitude, distance)));
+            }
+        }
+
+        /**
+         * Cota inferior de la distancia a cualquier centro ubicado en el anillo {@code ring}.
+         */
+        private double minRingDistance(int ring, double latitude) {
+            if (ring <= 1) {
+                return 0;
+            }
+            double gapDegrees = (ring - 1) * cellSize;
+            double farthestLatitude = Math.min(90.0, Math.abs(latitude) + (ring + 1) * cellSize);
+            double lonGapMeters = gapDegrees * METERS_PER_DEGREE * Math.cos(Math.toRadians(farthestLatitude));
+            return Math.min(gapDegrees * METERS_PER_DEGREE, lonGapMeters);
+        }
+
+        private int cell(double degrees) {
+            return (int) Math.floor(degrees / cellSize);
+        }
+
+        private static double lonSpan(double latitude, double latSpan) {
+            double cosLat = Math.max(Math.cos(Math.toRadians(Math.min(90.0, Math.abs(latitude) + latSpan))), 1e-6);
+            return Math.min(180.0, latSpan / cosLat);
+        }
+
+        static Snapshot build(List<IndexedZone> zones, double cellSize, long version) {
+            Map<Long, List<Integer>> coverage = new HashMap<>();
+            Map<Long, List<Integer>> centers = new HashMap<>();
+            int minCellLat = Integer.MAX_VALUE;
+            int maxCellLat = Integer.MIN_VALUE;
+            int minCellLon = Integer.MAX_VALUE;
+            int maxCellLon = Integer.MIN_VALUE;
+
+            for (int i = 0; i < zones.size(); i++) {
+                IndexedZone zone = zones.get(i);
+                int centerLat = (int) Math.floor(zone.latitude() / cellSize);
+                int centerLon = (int) Math.floor(zone.longitude() / cellSize);
+                centers.computeIfAbsent(cellKey(centerLat, centerLon), key -> new ArrayList<>()).add(i);
+                minCellLat = Math.min(minCellLat, centerLat);
+                maxCellLat = Math.max(maxCellLat, centerLat);
+                minCellLon = Math.min(minCellLon, centerLon);
+                maxCellLon = Math.max(maxCellLon, centerLon);
+
+                // Rectángulo que envuelve el círculo de la zona
+                double latSpan = zone.radiusMeters() / METERS_PER_DEGREE;
+                double lonSpan = lonSpan(zone.latitude(), latSpan);
+                int fromLat = (int) Math.floor((zone.latitude() - latSpan) / cellSize);
+                int toLat = (int) Math.floor((zone.latitude() + latSpan) / cellSize);
+                int fromLon = (int) Math.floor((zone.longitude() - lonSpan) / cellSize);
+                int toLon = (int) Math.floor((zone.longitude() + lonSpan) / cellSize);
+                for (int cellLat = fromLat; cellLat <= toLat; cellLat++) {
+                    for (int cellLon = fromLon; cellLon <= toLon; cellLon++) {
+                        coverage.computeIfAbsent(cellKey(cellLat, cellLon), key -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+
+            return new Snapshot(version, cellSize, zones.toArray(IndexedZone[]::new), toArrays(coverage),
+                    toArrays(centers), minCellLat, maxCellLat, minCellLon, maxCellLon);
+        }
+
+        private static Map<Long, int[]> toArrays(Map<Long, List<Integer>> cells) {
+            Map<Long, int[]> result = new HashMap<>(cells.size() * 2);
+            cells.forEach((key, indexes) -> result.put(key, indexes.stream().mapToInt(Integer::intValue).toArray()));
+            return result;
+        }
+    }
+}
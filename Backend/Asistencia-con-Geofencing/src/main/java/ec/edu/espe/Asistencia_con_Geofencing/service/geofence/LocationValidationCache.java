@@ -0,0 +1,125 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.geofence;
+
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeoDistance;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.Geohash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resultados de validación de ubicación por celda geohash de {@code geofencing.cache.geohash-precision}.
+ *
+ * Una celda se guarda solo si queda completamente dentro o completamente fuera de cada zona
+ * cercana; así la pertenencia a las zonas es la misma para cualquier punto de la celda. Las celdas
+ * que cruzan un borde se marcan para que sus peticiones vayan directamente al cálculo exacto.
+ * Las entradas llevan la versión del índice de zonas: crear, eliminar o recargar zonas las invalida.
+ */
+@Component
+public class LocationValidationCache {
+
+    private final GeofenceZoneIndex geofenceZoneIndex;
+    private final boolean enabled;
+    private final int precision;
+    private final int maxEntries;
+    private final int maxListedZones;
+    private final Map<String, CachedCell> cells = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter boundaries;
+
+    public LocationValidationCache(GeofenceZoneIndex geofenceZoneIndex,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${geofencing.cache.enabled:true}") boolean enabled,
+                                   @Value("${geofencing.cache.geohash-precision:8}") int precision,
+                                   @Value("${geofencing.cache.max-entries:50000}") int maxEntries,
+                                   @Value("${geofencing.index.max-listed-zones:20}") int maxListedZones) {
+        this.geofenceZoneIndex = geofenceZoneIndex;
+        this.enabled = enabled;
+        this.precision = precision;
+        this.maxEntries = maxEntries;
+        this.maxListedZones = maxListedZones;
+        this.hits = Counter.builder("geofence.validation.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("geofence.validation.cache").tag("result", "miss").register(meterRegistry);
+        this.boundaries = Counter.builder("geofence.validation.cache").tag("result", "boundary").register(meterRegistry);
+    }
+
+    /**
+     * Zonas a listar y zonas que contienen la celda del punto, o vacío si la celda cruza un borde
+     * y debe calcularse de forma exacta.
+     */
+    public Optional<CellAnswer> lookup(double latitude, double longitude) {
+        if (!enabled || !GeoDistance.isValidCoordinate(latitude, longitude)) {
+            return Optional.empty();
+        }
+
+        Geohash.Cell cell = Geohash.cell(latitude, longitude, precision);
+        long version = geofenceZoneIndex.version();
+        CachedCell cached = cells.get(cell.hash());
+        if (cached != null && cached.version() == version) {
+            if (cached.answer() == null) {
+                boundaries.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(cached.answer());
+        }
+
+        misses.increment();
+        CachedCell computed = classify(cell, version);
+        if (cells.size() >= maxEntries) {
+            cells.clear();
+        }
+        cells.put(cell.hash(), computed);
+        return Optional.ofNullable(computed.answer());
+    }
+
+    private CachedCell classify(Geohash.Cell cell, long version) {
+        double centerLat = cell.centerLatitude();
+        double centerLon = cell.centerLongitude();
+        double margin = cell.halfDiagonalMeters();
+
+        Set<UUID> insideZoneIds = new HashSet<>();
+        for (GeofenceZoneIndex.IndexedZone zone : geofenceZoneIndex.intersecting(centerLat, centerLon, margin)) {
+            GeofenceShape.Containment containment = zone.shape().classify(centerLat, centerLon, margin);
+            if (containment == GeofenceShape.Containment.BOUNDARY) {
+                return new CachedCell(version, null);
+            }
+            if (containment == GeofenceShape.Containment.INSIDE) {
+                insideZoneIds.add(zone.id());
+            }
+        }
+
+        List<GeofenceZoneIndex.IndexedZone> listedZones = geofenceZoneIndex
+                .nearest(centerLat, centerLon, maxListedZones).stream()
+                .map(GeofenceZoneIndex.ZoneMatch::zone)
+                .toList();
+        return new CachedCell(version, new CellAnswer(listedZones, Set.copyOf(insideZoneIds)));
+    }
+
+    /**
+     * @param listedZones   zonas más cercanas al centro de la celda
+     * @param insideZoneIds zonas que contienen toda la celda
+     */
+    public record CellAnswer(List<GeofenceZoneIndex.IndexedZone> listedZones, Set<UUID> insideZoneIds) {
+
+        public boolean withinCampus() {
+            return !insideZoneIds.isEmpty();
+        }
+    }
+
+    /**
+     * @param answer respuesta de la celda, o null si cruza el borde de alguna zona
+     */
+    private record CachedCell(long version, CellAnswer answer) {
+    }
+}
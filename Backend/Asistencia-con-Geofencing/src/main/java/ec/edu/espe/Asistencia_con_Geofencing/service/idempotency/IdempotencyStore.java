@@ -0,0 +1,150 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.idempotency;
+
+import ec.edu.espe.Asistencia_con_Geofencing.exception.BadRequestException;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.IdempotencyKeyReusedException;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas ya entregadas por clave {@code Idempotency-Key}, por usuario y operación.
+ *
+ * Un reintento con la misma clave recibe la respuesta guardada sin repetir la validación ni tocar
+ * las tablas de asistencia. Las respuestas viven {@code idempotency.ttl-hours} en una caché LRU
+ * acotada a {@code idempotency.max-entries} y, como respaldo entre nodos y reinicios, en
+ * {@code idempotency_records}. Solo se guardan las respuestas exitosas: si la petición falló,
+ * el reintento vuelve a ejecutarse.
+ *
+ * Junto a la respuesta se guarda un hash SHA-256 del cuerpo de la petición; reutilizar la clave con
+ * otro cuerpo se rechaza con 422 en lugar de devolver la respuesta de la primera petición.
+ *
+ * La clave no se reserva antes de ejecutar: dos peticiones con la misma clave que llegan a la vez
+ * se ejecutan ambas. Ese caso lo resuelve el {@code INSERT ... ON CONFLICT} de asistencias, que
+ * registra una sola fila y responde ALREADY_REGISTERED (o el elemento ya sincronizado) a la otra.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlHours;
+    private final Map<String, StoredResponse> responses;
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.ttlHours = ttlHours;
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<String, StoredResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave. Sin clave, la ejecuta siempre.
+     *
+     * @param request cuerpo de la petición; una clave reutilizada con otro cuerpo lanza
+     *                {@link IdempotencyKeyReusedException}
+     */
+    public <T> T execute(UUID userId, String scope, String idempotencyKey, Object request,
+                         Class<T> responseType, Supplier<T> operation) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return operation.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("El encabezado " + HEADER + " no puede superar " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String cacheKey = userId + ":" + scope + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<StoredResponse> stored = find(cacheKey, userId, scope, idempotencyKey, responseType, now);
+        if (stored.isPresent()) {
+            // Los registros anteriores al hash no lo tienen y se aceptan
+            String storedHash = stored.get().requestHash();
+            if (storedHash != null && !storedHash.equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(
+                        "La clave " + HEADER + " ya se usó con una petición distinta");
+            }
+            log.debug("Respuesta repetida para {} {} (clave {})", scope, userId, idempotencyKey);
+            return responseType.cast(stored.get().body());
+        }
+
+        T response = operation.get();
+        save(cacheKey, userId, scope, idempotencyKey, requestHash, response, LocalDateTime.now());
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (responses) {
+            responses.values().removeIf(response -> !response.expiresAt().isAfter(now));
+        }
+        int deleted = recordRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Eliminados {} registros de idempotencia expirados", deleted);
+        }
+    }
+
+    private Optional<StoredResponse> find(String cacheKey, UUID userId, String scope, String idempotencyKey,
+                                          Class<?> responseType, LocalDateTime now) {
+        StoredResponse cached = responses.get(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(now) && responseType.isInstance(cached.body())) {
+            return Optional.of(cached);
+        }
+
+        return recordRepository.findActive(userId, scope, idempotencyKey, now)
+                .map(saved -> new StoredResponse(objectMapper.readValue(saved.getResponseBody(), responseType),
+                        saved.getRequestHash(), saved.getExpiresAt()));
+    }
+
+    private void save(String cacheKey, UUID userId, String scope, String idempotencyKey, String requestHash,
+                      Object response, LocalDateTime now) {
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        responses.put(cacheKey, new StoredResponse(response, requestHash, expiresAt));
+        try {
+            recordRepository.insertIfAbsent(UUID.randomUUID(), userId, scope, idempotencyKey, requestHash,
+                    objectMapper.writeValueAsString(response), now, expiresAt);
+        } catch (DataAccessException e) {
+            // La operación ya se aplicó: sin respaldo duradero, el reintento en otro nodo la repetirá
+            log.warn("No se pudo guardar la respuesta idempotente de {} (clave {}): {}", scope, idempotencyKey, e.getMessage());
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record StoredResponse(Object body, String requestHash, LocalDateTime expiresAt) {
+    }
+}
@@ -10,6 +10,7 @@ import ec.edu.espe.Asistencia_con_Geofencing.model.enums.NotificationType;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.NotificationRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.UserRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.service.dashboard.DashboardInvalidations;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,7 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final AttendanceRepository attendanceRepository;
     private final UserRepository userRepository;
+    private final DashboardInvalidations dashboardInvalidations;
 
     @Override
     @Transactional(readOnly = true)
@@ -49,12 +51,17 @@ public class NotificationServiceImpl implements NotificationService {
 
         notification.setReadAt(LocalDateTime.now());
         notificationRepository.save(notification);
+        dashboardInvalidations.invalidate(List.of(userId));
     }
 
     @Override
     @Transactional
     public int markAllAsRead(UUID userId) {
-        return notificationRepository.markAllAsReadByUserId(userId);
+        int updated = notificationRepository.markAllAsReadByUserId(userId);
+        if (updated > 0) {
+            dashboardInvalidations.invalidate(List.of(userId));
+        }
+        return updated;
     }
 
     @Override
@@ -87,6 +94,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .toList();
 
         notificationRepository.saveAll(notifications);
+        dashboardInvalidations.invalidate(absentStudents.stream().map(User::getId).toList());
         log.info("Notificaciones de ausencia creadas: {}", notifications.size());
         return notifications;
     }
@@ -3,8 +3,10 @@ package ec.edu.espe.Asistencia_con_Geofencing.service.pdf.strategy;
 import ec.edu.espe.Asistencia_con_Geofencing.exception.ResourceNotFoundException;
 import ec.edu.espe.Asistencia_con_Geofencing.model.Attendance;
 import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.SessionStatistics;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SessionStatisticsRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.pdf.PdfTableData;
 import ec.edu.espe.Asistencia_con_Geofencing.utils.pdf.DateTimeFormatters;
 import lombok.extern.slf4j.Slf4j;
@@ -23,14 +25,17 @@ public class SessionAttendanceReportStrategy extends AbstractPdfReportStrategy {
     
     private final AttendanceRepository attendanceRepository;
     private final AttendanceSessionRepository sessionRepository;
+    private final SessionStatisticsRepository statisticsRepository;
     
     public SessionAttendanceReportStrategy(
             DateTimeFormatters dateTimeFormatters,
             AttendanceRepository attendanceRepository,
-            AttendanceSessionRepository sessionRepository) {
+            AttendanceSessionRepository sessionRepository,
+            SessionStatisticsRepository statisticsRepository) {
         super(dateTimeFormatters);
         this.attendanceRepository = attendanceRepository;
         this.sessionRepository = sessionRepository;
+        this.statisticsRepository = statisticsRepository;
     }
     
     @Override
@@ -83,39 +88,23 @@ public class SessionAttendanceReportStrategy extends AbstractPdfReportStrategy {
     protected Map<String, Object> buildStatistics(Object... params) {
         UUID sessionId = (UUID) params[0];
         
-        AttendanceSession session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Sesión no encontrada"));
-        
-        List<Attendance> attendances = attendanceRepository.findBySessionId(sessionId);
-        
-        long onTimeRegistrations = attendances.stream()
-                .filter(a -> ChronoUnit.MINUTES.between(session.getStartTime(), a.getDeviceTime()) <= 15)
-                .count();
-        
-        long lateRegistrations = attendances.size() - onTimeRegistrations;
-        
-        double avgSyncDelay = attendances.stream()
-                .mapToLong(a -> ChronoUnit.SECONDS.between(a.getDeviceTime(), a.getServerTime()))
-                .average()
-                .orElse(0.0);
-        
-        long offlineSyncs = attendances.stream()
-                .filter(a -> ChronoUnit.MINUTES.between(a.getDeviceTime(), a.getServerTime()) > 1)
-                .count();
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Sesión no encontrada");
+        }
         
-        long withinGeofence = attendances.stream()
-                .filter(Attendance::getWithinGeofence)
-                .count();
+        // Contadores mantenidos al insertar cada asistencia: una búsqueda por clave primaria
+        SessionStatistics statistics = statisticsRepository.findById(sessionId)
+                .orElseGet(() -> SessionStatistics.empty(sessionId));
         
         Map<String, Object> stats = createOrderedStatsMap();
-        stats.put("Total de asistencias", attendances.size());
-        stats.put("Registros puntuales (≤15 min)", onTimeRegistrations);
-        stats.put("Registros tardíos (>15 min)", lateRegistrations);
-        stats.put("Tiempo promedio de sincronización", String.format("%.1f segundos", avgSyncDelay));
-        stats.put("Sincronizaciones offline (>1 min)", offlineSyncs);
-        stats.put("Dentro de geofence", withinGeofence);
-        
-        log.debug("Estadísticas calculadas para sesión: {} asistencias", attendances.size());
+        stats.put("Total de asistencias", statistics.getTotalAttendances());
+        stats.put("Registros puntuales (≤15 min)", (long) statistics.getOnTimeReportCount());
+        stats.put("Registros tardíos (>15 min)", (long) (statistics.getTotalAttendances() - statistics.getOnTimeReportCount()));
+        stats.put("Tiempo promedio de sincronización", String.format("%.1f segundos", statistics.averageSyncDelaySeconds()));
+        stats.put("Sincronizaciones offline (>1 min)", (long) statistics.getOfflineSyncedCount());
+        stats.put("Dentro de geofence", (long) statistics.getWithinGeofenceCount());
+        
+        log.debug("Estadísticas calculadas para sesión: {} asistencias", statistics.getTotalAttendances());
         return stats;
     }
     
@@ -0,0 +1,53 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Instantánea inmutable de un token QR vigente con los datos de su sesión y geocerca,
+ * suficiente para validar un escaneo sin consultar la base de datos.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ActiveQrToken {
+
+    private final String token;
+    private final UUID qrTokenId;
+    private final UUID sessionId;
+    private final boolean sessionActive;
+    private final LocalDateTime sessionEndTime;
+    private final UUID geofenceId;
+    private final String geofenceName;
+    private final BigDecimal geofenceLatitude;
+    private final BigDecimal geofenceLongitude;
+    private final Integer radiusMeters;
+    private final GeofenceShape geofenceShape;
+    private final LocalDateTime expiresAt;
+
+    /**
+     * Contador de rotación del QR dentro de la sesión. Un token con rotación menor que la del
+     * token vigente ha sido reemplazado. Los tokens heredados (persistidos) usan 0.
+     */
+    private final long rotation;
+
+    /**
+     * Momento a partir del cual la entrada debe revalidarse contra la base de datos,
+     * aunque el token siga vigente (acota la inconsistencia entre nodos).
+     */
+    private final LocalDateTime cacheExpiresAt;
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return isExpired(now) || !cacheExpiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,342 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget;
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.model.QrToken;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.QrTokenRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registro local (por nodo) de los tokens QR vigentes.
+ *
+ * Se llena al generar un QR y, ante un fallo de caché, con una única consulta plana
+ * ({@link QrScanTarget}) que no carga entidades.
+ * Los tokens firmados se verifican en CPU y solo se consulta la sesión; los heredados se buscan
+ * en {@code qr_tokens} mientras {@code qr.token.legacy.accepted} esté activo.
+ * Las entradas se descartan al expirar el token, al rotarse el QR de la sesión o al finalizarla.
+ * Cada entrada vive como máximo {@code qr.registry.max-entry-ttl-seconds} para que un cambio hecho
+ * en otro nodo (p. ej. finalizar la sesión) se observe en poco tiempo.
+ */
+@Slf4j
+@Component
+public class ActiveQrTokenRegistry {
+
+    private final QrTokenRepository qrTokenRepository;
+    private final AttendanceSessionRepository sessionRepository;
+    private final QrTokenSigner qrTokenSigner;
+
+    private final Map<String, ActiveQrToken> tokens = new ConcurrentHashMap<>();
+    private final Map<UUID, ActiveQrToken> currentBySession = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expiredEvictions;
+    private final Counter rotatedEvictions;
+    private final Counter sessionEndedEvictions;
+
+    @Value("${qr.registry.max-entry-ttl-seconds:30}")
+    private long maxEntryTtlSeconds;
+
+    @Value("${qr.token.legacy.accepted:true}")
+    private boolean legacyTokensAccepted;
+
+    @Value("${qr.token.offline.max-clock-skew-seconds:60}")
+    private long offlineClockSkewSeconds;
+
+    public ActiveQrTokenRegistry(QrTokenRepository qrTokenRepository,
+                                 AttendanceSessionRepository sessionRepository,
+                                 QrTokenSigner qrTokenSigner,
+                                 MeterRegistry meterRegistry) {
+        this.qrTokenRepository = qrTokenRepository;
+        this.sessionRepository = sessionRepository;
+        this.qrTokenSigner = qrTokenSigner;
+        this.hits = Counter.builder("qr.registry.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("qr.registry.lookups").tag("result", "miss").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("qr.registry.evictions").tag("reason", "expired").register(meterRegistry);
+        this.rotatedEvictions = Counter.builder("qr.registry.evictions").tag("reason", "rotated").register(meterRegistry);
+        this.sessionEndedEvictions = Counter.builder("qr.registry.evictions").tag("reason", "session_ended").register(meterRegistry);
+        Gauge.builder("qr.registry.size", tokens, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Resuelve un token vigente: primero en memoria y, si no está, verificándolo o buscándolo en la base de datos.
+     */
+    public Optional<ActiveQrToken> resolve(String token, LocalDateTime now) {
+        ActiveQrToken cached = lookup(token, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        if (qrTokenSigner.isSigned(token)) {
+            return verifySigned(token, now)
+                    .flatMap(signed -> sessionRepository.findScanTarget(signed.getSessionId())
+                            .flatMap(target -> admit(snapshotOf(target, signed, now))));
+        }
+        if (!legacyTokensAccepted) {
+            return Optional.empty();
+        }
+        return qrTokenRepository.findScanTarget(token, now)
+                .flatMap(target -> admit(snapshotOf(target, now)));
+    }
+
+    /**
+     * Sesión a la que pertenece el token, sin consultar la base de datos: desde memoria o desde
+     * la firma. Vacío para tokens heredados que no están en memoria o tokens inválidos.
+     */
+    public Optional<UUID> peekSessionId(String token) {
+        ActiveQrToken cached = token != null ? tokens.get(token) : null;
+        if (cached != null) {
+            return Optional.of(cached.getSessionId());
+        }
+        return qrTokenSigner.verify(token).map(SignedQrToken::getSessionId);
+    }
+
+    /**
+     * Resuelve varios tokens escaneados offline. Los que no están en memoria se resuelven con una
+     * consulta para todas las sesiones de los tokens firmados y otra para todos los tokens heredados.
+     *
+     * A diferencia de {@link #resolve}, no comprueba la rotación ni la expiración de los tokens
+     * firmados contra el instante actual: un QR escaneado sin conexión se sincroniza minutos después.
+     * Esa comprobación la hace {@link #isValidOfflineScan} con la hora del dispositivo. Los tokens
+     * firmados de rotaciones anteriores no se registran como vigentes de su sesión.
+     *
+     * @return tokens con firma válida o vigentes en {@code qr_tokens}, indexados por su valor
+     */
+    public Map<String, ActiveQrToken> resolveAll(Collection<String> requested, LocalDateTime now) {
+        Map<String, ActiveQrToken> resolved = new HashMap<>();
+        Map<String, SignedQrToken> signedMisses = new HashMap<>();
+        Set<String> legacyMisses = new HashSet<>();
+
+        for (String token : new HashSet<>(requested)) {
+            ActiveQrToken cached = token != null ? tokens.get(token) : null;
+            if (cached != null && !cached.isStale(now)) {
+                hits.increment();
+                resolved.put(token, cached);
+                continue;
+            }
+            misses.increment();
+            if (qrTokenSigner.isSigned(token)) {
+                qrTokenSigner.verify(token).ifPresent(signed -> signedMisses.put(token, signed));
+            } else if (legacyTokensAccepted && token != null) {
+                legacyMisses.add(token);
+            }
+        }
+
+        if (!signedMisses.isEmpty()) {
+            Set<UUID> sessionIds = signedMisses.values().stream()
+                    .map(SignedQrToken::getSessionId)
+                    .collect(Collectors.toSet());
+            Map<UUID, QrScanTarget> targets = sessionRepository.findScanTargets(sessionIds).stream()
+                    .collect(Collectors.toMap(QrScanTarget::getSessionId, Function.identity()));
+            signedMisses.forEach((token, signed) -> Optional.ofNullable(targets.get(signed.getSessionId()))
+                    .ifPresent(target -> resolved.put(token, snapshotOf(target, signed, now))));
+        }
+
+        if (!legacyMisses.isEmpty()) {
+            qrTokenRepository.findScanTargets(legacyMisses, now)
+                    .forEach(target -> admit(snapshotOf(target, now))
+                            .ifPresent(entry -> resolved.put(target.getToken(), entry)));
+        }
+        return resolved;
+    }
+
+    /**
+     * Indica si un token devuelto por {@link #resolveAll} era válido cuando el dispositivo lo escaneó.
+     * La hora del dispositivo se acepta con {@code qr.token.offline.max-clock-skew-seconds} de
+     * tolerancia y no puede ser posterior al instante actual más esa tolerancia. La vigencia de los
+     * tokens heredados ya la comprobó la consulta a {@code qr_tokens}.
+     */
+    public boolean isValidOfflineScan(ActiveQrToken entry, LocalDateTime deviceTime, LocalDateTime now) {
+        if (entry.getQrTokenId() != null) {
+            return true;
+        }
+        LocalDateTime earliest = deviceTime.minusSeconds(offlineClockSkewSeconds);
+        LocalDateTime latest = deviceTime.plusSeconds(offlineClockSkewSeconds);
+        if (earliest.isAfter(now) || !entry.getExpiresAt().isAfter(earliest)) {
+            return false;
+        }
+        return qrTokenSigner.wasCurrentBetween(entry.getRotation(), earliest, latest.isAfter(now) ? now : latest);
+    }
+
+    /**
+     * Devuelve la entrada en memoria si sigue vigente; si no, la descarta y cuenta el fallo.
+     */
+    private ActiveQrToken lookup(String token, LocalDateTime now) {
+        ActiveQrToken cached = token != null ? tokens.get(token) : null;
+        if (cached != null) {
+            if (!cached.isStale(now) && isCurrentRotation(cached, now)) {
+                hits.increment();
+                return cached;
+            }
+            discard(cached, now);
+        }
+        misses.increment();
+        return null;
+    }
+
+    private Optional<SignedQrToken> verifySigned(String token, LocalDateTime now) {
+        return qrTokenSigner.verify(token)
+                .filter(candidate -> candidate.getExpiresAt().isAfter(now))
+                .filter(candidate -> qrTokenSigner.isCurrent(candidate.getRotation(), now))
+                .filter(candidate -> !isSuperseded(candidate.getSessionId(), candidate.getRotation()));
+    }
+
+    // Los tokens heredados (con fila en qr_tokens) no rotan: siguen vigentes mientras sean el QR actual de su sesión
+    private boolean isCurrentRotation(ActiveQrToken entry, LocalDateTime now) {
+        if (entry.getQrTokenId() != null) {
+            return currentBySession.get(entry.getSessionId()) == entry;
+        }
+        return qrTokenSigner.isCurrent(entry.getRotation(), now);
+    }
+
+    /**
+     * Registra el token de un QR heredado como el vigente de su sesión.
+     */
+    public void register(QrToken qrToken) {
+        admit(snapshotOf(qrToken, LocalDateTime.now()));
+    }
+
+    /**
+     * Registra un token firmado como el vigente de su sesión.
+     */
+    public void register(AttendanceSession session, SignedQrToken signed) {
+        admit(snapshotOf(session, signed, LocalDateTime.now()));
+    }
+
+    /**
+     * Descarta el token vigente de una sesión (p. ej. al finalizarla).
+     */
+    public void evictSession(UUID sessionId) {
+        ActiveQrToken current = currentBySession.remove(sessionId);
+        if (current != null && tokens.remove(current.getToken()) != null) {
+            sessionEndedEvictions.increment();
+            log.debug("Token QR de la sesión {} descartado del registro", sessionId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${qr.registry.cleanup-interval-ms:30000}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        tokens.values().forEach(entry -> {
+            if (entry.isStale(now)) {
+                discard(entry, now);
+            }
+        });
+    }
+
+    /**
+     * Registra la entrada solo si no fue reemplazada por una rotación posterior de la misma sesión.
+     * Dos tokens firmados distintos de la misma rotación (p. ej. emitidos en nodos distintos) son ambos
+     * válidos; como vigente de la sesión queda siempre el mayor, para que no se reemplacen entre sí.
+     * Los tokens heredados no tienen rotación (todos usan 0): uno nuevo siempre reemplaza al anterior,
+     * igual que {@code invalidateSessionTokens} invalida las filas previas en {@code qr_tokens}.
+     */
+    private Optional<ActiveQrToken> admit(ActiveQrToken entry) {
+        ActiveQrToken[] previous = new ActiveQrToken[1];
+        ActiveQrToken current = currentBySession.compute(entry.getSessionId(), (sessionId, existing) -> {
+            previous[0] = existing;
+            if (existing == null || entry.getQrTokenId() != null || existing.getRotation() < entry.getRotation()) {
+                return entry;
+            }
+            if (existing.getRotation() > entry.getRotation()) {
+                return existing;
+            }
+            return existing.getToken().compareTo(entry.getToken()) >= 0 ? existing : entry;
+        });
+        if (current != entry && current.getRotation() > entry.getRotation()) {
+            return Optional.empty();
+        }
+
+        tokens.put(entry.getToken(), entry);
+        // Solo un QR posterior saca de memoria al token anterior
+        if (current == entry && previous[0] != null && !previous[0].getToken().equals(entry.getToken())
+                && (entry.getQrTokenId() != null || previous[0].getRotation() < entry.getRotation())
+                && tokens.remove(previous[0].getToken()) != null) {
+            rotatedEvictions.increment();
+        }
+        return Optional.of(entry);
+    }
+
+    private boolean isSuperseded(UUID sessionId, long rotation) {
+        ActiveQrToken current = currentBySession.get(sessionId);
+        return current != null && current.getRotation() > rotation;
+    }
+
+    private void discard(ActiveQrToken entry, LocalDateTime now) {
+        if (tokens.remove(entry.getToken(), entry)) {
+            expiredEvictions.increment();
+        }
+        // La rotación vigente se conserva mientras el token no expire para seguir rechazando QR reemplazados
+        if (entry.isExpired(now)) {
+            currentBySession.remove(entry.getSessionId(), entry);
+        }
+    }
+
+    private ActiveQrToken snapshotOf(QrToken qrToken, LocalDateTime now) {
+        return snapshotOf(qrToken.getSession(), qrToken.getToken(), qrToken.getId(), qrToken.getExpiresAt(), 0L, now);
+    }
+
+    private ActiveQrToken snapshotOf(AttendanceSession session, SignedQrToken signed, LocalDateTime now) {
+        return snapshotOf(session, signed.getToken(), null, signed.getExpiresAt(), signed.getRotation(), now);
+    }
+
+    private ActiveQrToken snapshotOf(AttendanceSession session, String token, UUID qrTokenId,
+                                     LocalDateTime expiresAt, long rotation, LocalDateTime now) {
+        GeofenceZone geofence = session.getGeofence();
+        QrScanTarget target = new QrScanTarget(session.getId(), session.getActive(), session.getEndTime(),
+                geofence.getId(), geofence.getName(), geofence.getLatitude(), geofence.getLongitude(),
+                geofence.getRadiusMeters(), geofence.getPolygonVertices());
+        return snapshotOf(target, token, qrTokenId, expiresAt, rotation, now);
+    }
+
+    private ActiveQrToken snapshotOf(QrScanTarget legacyTarget, LocalDateTime now) {
+        return snapshotOf(legacyTarget, legacyTarget.getToken(), legacyTarget.getQrTokenId(),
+                legacyTarget.getTokenExpiresAt(), 0L, now);
+    }
+
+    private ActiveQrToken snapshotOf(QrScanTarget sessionTarget, SignedQrToken signed, LocalDateTime now) {
+        return snapshotOf(sessionTarget, signed.getToken(), null, signed.getExpiresAt(), signed.getRotation(), now);
+    }
+
+    private ActiveQrToken snapshotOf(QrScanTarget target, String token, UUID qrTokenId,
+                                     LocalDateTime expiresAt, long rotation, LocalDateTime now) {
+        return ActiveQrToken.builder()
+                .token(token)
+                .qrTokenId(qrTokenId)
+                .sessionId(target.getSessionId())
+                .sessionActive(Boolean.TRUE.equals(target.getSessionActive()))
+                .sessionEndTime(target.getSessionEndTime())
+                .geofenceId(target.getGeofenceId())
+                .geofenceName(target.getGeofenceName())
+                .geofenceLatitude(target.getGeofenceLatitude())
+                .geofenceLongitude(target.getGeofenceLongitude())
+                .radiusMeters(target.getRadiusMeters())
+                .geofenceShape(GeofenceShape.of(target.getGeofenceLatitude(), target.getGeofenceLongitude(),
+                        target.getRadiusMeters(), target.getPolygonVertices()))
+                .expiresAt(expiresAt)
+                .rotation(rotation)
+                .cacheExpiresAt(now.plusSeconds(maxEntryTtlSeconds))
+                .build();
+    }
+}
@@ -13,12 +13,14 @@ import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionReposit
 import ec.edu.espe.Asistencia_con_Geofencing.repository.QrTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.UUID;
@@ -30,6 +32,11 @@ public class QrServiceImpl implements QrService {
 
     private final QrTokenRepository qrTokenRepository;
     private final AttendanceSessionRepository sessionRepository;
+    private final ActiveQrTokenRegistry activeQrTokenRegistry;
+    private final QrTokenSigner qrTokenSigner;
+
+    @Value("${qr.token.signed.enabled:true}")
+    private boolean signedTokensEnabled;
 
     @Transactional
     public QrTokenResponse generateQrToken(GenerateQrRequest request, UUID teacherId) {
@@ -45,11 +52,27 @@ public class QrServiceImpl implements QrService {
         }
 
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(request.getExpiresInMinutes());
+
+        if (signedTokensEnabled) {
+            // Token autocontenido: no se persiste ni se invalidan filas anteriores
+            long rotation = qrTokenSigner.rotationAt(now);
+            SignedQrToken signed = qrTokenSigner.sign(session.getId(), rotation, expiresAt);
+            String qrBase64 = generateQrImage(signed.getToken());
+            activeQrTokenRegistry.register(session, signed);
+            return QrTokenResponse.builder()
+                    .qrId(UUID.nameUUIDFromBytes(signed.getToken().getBytes(StandardCharsets.UTF_8)))
+                    .token(signed.getToken())
+                    .sessionId(session.getId())
+                    .expiresAt(expiresAt)
+                    .qrCodeBase64(qrBase64)
+                    .build();
+        }
+
         qrTokenRepository.invalidateSessionTokens(session.getId(), now, now.minusMinutes(1));
         log.info("Tokens anteriores de la sesión {} invalidados", session.getId());
 
         String token = UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
-        LocalDateTime expiresAt = now.plusMinutes(request.getExpiresInMinutes());
 
         QrToken qrToken = new QrToken();
         qrToken.setSession(session);
@@ -57,6 +80,7 @@ public class QrServiceImpl implements QrService {
         qrToken.setExpiresAt(expiresAt);
         qrToken = qrTokenRepository.save(qrToken);
         String qrBase64 = generateQrImage(token);
+        activeQrTokenRegistry.register(qrToken);
         return QrTokenResponse.builder()
                 .qrId(qrToken.getId())
                 .token(token)
@@ -0,0 +1,167 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emite y verifica tokens QR autocontenidos.
+ *
+ * Formato: {@code QR2.} + base64url(sessionId | rotación | expiración | HMAC truncado).
+ * La firma usa una clave derivada por sesión a partir del secreto maestro, así que verificar
+ * un token no requiere consultar {@code qr_tokens}.
+ *
+ * La rotación es el número de paso de {@code qr.token.validity.seconds} en que se emitió el token.
+ * Un token solo se acepta mientras puede seguir en pantalla ({@link #isCurrent}), sin importar su
+ * expiración: un QR fotografiado deja de servir en todos los nodos al rotar, aunque el nodo que lo
+ * valida no haya visto el QR que lo reemplazó.
+ *
+ * El paso y el tiempo que el docente muestra cada QR no coinciden: la app regenera el QR cada
+ * 30 s ({@code session_detail_page.dart}) y el paso es de 25 s. Por eso la ventana se calcula a partir
+ * de {@code qr.token.display-seconds}: un token emitido al final de su paso sigue en pantalla
+ * {@code ceil(display / paso)} pasos después. Los escaneos offline se comprueban contra la hora del
+ * dispositivo ({@link #wasCurrentBetween}), no contra la de la sincronización.
+ */
+@Component
+public class QrTokenSigner {
+
+    private static final String PREFIX = "QR2.";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 16 + 8 + 8;
+    private static final int MAC_LENGTH = 16;
+    private static final byte[] SESSION_KEY_LABEL = "qr-session-key:".getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    });
+
+    private final byte[] masterKey;
+    private final long rotationStepSeconds;
+    private final long acceptedPastRotations;
+
+    public QrTokenSigner(@Value("${qr.token.secret}") String secret,
+                         @Value("${jwt.secret}") String jwtSecret,
+                         @Value("${qr.token.validity.seconds:25}") long rotationStepSeconds,
+                         @Value("${qr.token.display-seconds:30}") long displaySeconds) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("qr.token.secret es requerido");
+        }
+        if (secret.equals(jwtSecret)) {
+            throw new IllegalStateException("qr.token.secret debe ser distinto de jwt.secret");
+        }
+        this.masterKey = secret.getBytes(StandardCharsets.UTF_8);
+        this.rotationStepSeconds = rotationStepSeconds;
+        this.acceptedPastRotations = Math.max(1, (displaySeconds + rotationStepSeconds - 1) / rotationStepSeconds);
+    }
+
+    /**
+     * Rotación correspondiente al instante indicado.
+     */
+    public long rotationAt(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / rotationStepSeconds;
+    }
+
+    /**
+     * Indica si un QR de esa rotación puede seguir en pantalla: acepta desde la rotación actual hasta
+     * {@code ceil(display / paso)} pasos atrás, más un paso adelante por diferencias de reloj entre nodos.
+     */
+    public boolean isCurrent(long rotation, LocalDateTime now) {
+        long current = rotationAt(now);
+        return rotation >= current - acceptedPastRotations && rotation <= current + 1;
+    }
+
+    /**
+     * Indica si la rotación era aceptable en algún instante del intervalo. Lo usa la sincronización
+     * offline, donde la hora del escaneo es la del dispositivo y solo se conoce con cierta tolerancia.
+     */
+    public boolean wasCurrentBetween(long rotation, LocalDateTime from, LocalDateTime to) {
+        return rotation >= rotationAt(from) - acceptedPastRotations && rotation <= rotationAt(to) + 1;
+    }
+
+    public boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    public SignedQrToken sign(UUID sessionId, long rotation, LocalDateTime expiresAt) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        buffer.putLong(sessionId.getMostSignificantBits());
+        buffer.putLong(sessionId.getLeastSignificantBits());
+        buffer.putLong(rotation);
+        buffer.putLong(expiresAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.put(mac(sessionId, buffer.array(), PAYLOAD_LENGTH));
+
+        String token = PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+        return new SignedQrToken(token, sessionId, rotation, expiresAt);
+    }
+
+    /**
+     * Verifica la firma del token. No comprueba la expiración ni la rotación.
+     */
+    public Optional<SignedQrToken> verify(String token) {
+        if (!isSigned(token)) {
+            return Optional.empty();
+        }
+
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(token.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (raw.length != PAYLOAD_LENGTH + MAC_LENGTH) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(raw);
+        UUID sessionId = new UUID(buffer.getLong(), buffer.getLong());
+        long rotation = buffer.getLong();
+        long expiresAtEpoch = buffer.getLong();
+
+        byte[] expected = mac(sessionId, raw, PAYLOAD_LENGTH);
+        byte[] actual = Arrays.copyOfRange(raw, PAYLOAD_LENGTH, raw.length);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.ofEpochSecond(expiresAtEpoch, 0, ZoneOffset.UTC);
+        return Optional.of(new SignedQrToken(token, sessionId, rotation, expiresAt));
+    }
+
+    private byte[] mac(UUID sessionId, byte[] payload, int length) {
+        try {
+            Mac mac = MAC.get();
+            mac.init(new SecretKeySpec(sessionKey(sessionId), ALGORITHM));
+            mac.update(payload, 0, length);
+            return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error firmando token QR", e);
+        }
+    }
+
+    private byte[] sessionKey(UUID sessionId) throws GeneralSecurityException {
+        Mac mac = MAC.get();
+        mac.init(new SecretKeySpec(masterKey, ALGORITHM));
+        mac.update(SESSION_KEY_LABEL);
+        mac.update(ByteBuffer.allocate(16)
+                .putLong(sessionId.getMostSignificantBits())
+                .putLong(sessionId.getLeastSignificantBits())
+                .array());
+        return mac.doFinal();
+    }
+}
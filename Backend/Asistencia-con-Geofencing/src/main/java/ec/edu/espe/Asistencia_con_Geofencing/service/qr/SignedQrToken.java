@@ -0,0 +1,20 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Contenido verificado de un token QR firmado.
+ */
+@Getter
+@AllArgsConstructor
+public class SignedQrToken {
+
+    private final String token;
+    private final UUID sessionId;
+    private final long rotation;
+    private final LocalDateTime expiresAt;
+}
@@ -0,0 +1,155 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.ServiceUnavailableException;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búfer de escritura diferida para lecturas de sensores.
+ *
+ * Las lecturas de todos los usuarios se encolan y un único hilo las inserta en sentencias
+ * multi-fila de hasta {@code batch-size} filas o cada {@code flush-interval-ms}. A diferencia de las
+ * asistencias, el cliente no espera el commit: la petición se responde al encolar. Un lote se
+ * acepta completo o se rechaza completo si no cabe en la cola.
+ */
+@Slf4j
+@Component
+public class SensorEventWriteBehindBuffer {
+
+    private final SensorEventRepository sensorEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingSensorEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private final Counter failedEvents;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public SensorEventWriteBehindBuffer(
+            SensorEventRepository sensorEventRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${sensors.ingestion.queue-capacity:20000}") int queueCapacity,
+            @Value("${sensors.ingestion.batch-size:500}") int batchSize,
+            @Value("${sensors.ingestion.flush-interval-ms:50}") long flushIntervalMillis) {
+        this.sensorEventRepository = sensorEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+
+        Gauge.builder("sensor.events.write_behind.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("sensor.events.write_behind.batch.size").register(meterRegistry);
+        this.flushLatency = Timer.builder("sensor.events.write_behind.flush.latency").register(meterRegistry);
+        this.failedEvents = Counter.builder("sensor.events.write_behind.failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("sensor-events-write-behind")
+                .daemon(true)
+                .start(this::runFlusher);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Encola todas las lecturas o ninguna.
+     */
+    public synchronized void submitAll(List<PendingSensorEvent> events) {
+        // Único productor a la vez: la capacidad comprobada no la consume otro hilo antes de encolar
+        if (queue.remainingCapacity() < events.size()) {
+            throw new ServiceUnavailableException("El sistema está procesando demasiadas lecturas de sensores. Intenta nuevamente.");
+        }
+        queue.addAll(events);
+    }
+
+    private void runFlusher() {
+        List<PendingSensorEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSensorEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingSensorEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en la ingesta diferida de sensores", e);
+                failedEvents.increment(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingSensorEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> sensorEventRepository.insertAll(batch));
+        } catch (DataAccessException e) {
+            // Un error (p. ej. una FK inválida) aborta todo el lote: se reintenta fila por fila para aislarlo
+            log.debug("Lote de {} lecturas rechazado, reintentando por fila: {}", batch.size(), e.getMessage());
+            batch.forEach(this::flushSingle);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void flushSingle(PendingSensorEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> sensorEventRepository.insertAll(List.of(event)));
+        } catch (DataAccessException e) {
+            failedEvents.increment();
+            log.warn("Lectura de sensor del usuario {} descartada: {}", event.getUserId(), e.getMessage());
+        }
+    }
+}
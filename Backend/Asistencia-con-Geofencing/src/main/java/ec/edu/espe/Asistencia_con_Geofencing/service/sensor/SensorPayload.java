@@ -0,0 +1,248 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+
+/**
+ * Valores tipados del campo {@code value} de una lectura de sensor, por ejemplo
+ * {@code {"azimuth": 180.5, "pitch": "10.2"}} o {@code {"near": true}}.
+ *
+ * {@link #parse(String)} recorre el JSON una sola vez, carácter por carácter, sin expresiones
+ * regulares ni subcadenas: los números (con o sin comillas) se convierten en el mismo recorrido.
+ * La instancia es reutilizable para no reservar memoria por lectura; no es segura entre hilos.
+ */
+public final class SensorPayload {
+
+    public static final int UNKNOWN = -1;
+
+    private static final String AZIMUTH = "azimuth";
+    private static final String NEAR = "near";
+
+    private String json;
+    private int pos;
+    private double azimuth;
+    private int near;
+
+    /**
+     * Azimut en grados, o {@link Double#NaN} si no viene en la lectura.
+     */
+    public double azimuth() {
+        return azimuth;
+    }
+
+    /**
+     * 1 si el sensor detectó proximidad, 0 si no, {@link #UNKNOWN} si no viene en la lectura.
+     */
+    public int near() {
+        return near;
+    }
+
+    /**
+     * Decodifica el valor a las columnas tipadas de la lectura según su tipo; los campos que no
+     * vienen (o un valor mal formado) quedan en null.
+     */
+    public PendingSensorEvent.PendingSensorEventBuilder decode(SensorType type, String value) {
+        boolean parsed = parse(value);
+        return PendingSensorEvent.builder()
+                .type(type)
+                .azimuth(parsed && type == SensorType.COMPASS && !Double.isNaN(azimuth) ? (float) azimuth : null)
+                .near(parsed && type == SensorType.PROXIMITY && near != UNKNOWN ? near == 1 : null);
+    }
+
+    /**
+     * @return false si el valor no es un objeto JSON bien formado
+     */
+    public boolean parse(String value) {
+        json = value;
+        pos = 0;
+        azimuth = Double.NaN;
+        near = UNKNOWN;
+        try {
+            return parseObject();
+        } finally {
+            json = null;
+        }
+    }
+
+    private boolean parseObject() {
+        skipWhitespace();
+        if (!consume('{')) {
+            return false;
+        }
+        skipWhitespace();
+        if (consume('}')) {
+            return true;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (!consume('"')) {
+                return false;
+            }
+            int keyStart = pos;
+            if (!skipStringBody()) {
+                return false;
+            }
+            int keyLength = pos - 1 - keyStart;
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            if (isKey(keyStart, keyLength, AZIMUTH)) {
+                azimuth = readNumber();
+            } else if (isKey(keyStart, keyLength, NEAR)) {
+                near = readBoolean();
+            }
+            if (!skipValue()) {
+                return false;
+            }
+
+            skipWhitespace();
+            if (consume(',')) {
+                continue;
+            }
+            return consume('}');
+        }
+    }
+
+    private boolean isKey(int start, int length, String key) {
+        return length == key.length() && json.regionMatches(start, key, 0, length);
+    }
+
+    /**
+     * Lee un número (o un número entre comillas) sin avanzar la posición.
+     */
+    private double readNumber() {
+        int i = pos;
+        int end = json.length();
+        if (i < end && json.charAt(i) == '"') {
+            i++;
+        }
+
+        boolean negative = false;
+        if (i < end && (json.charAt(i) == '-' || json.charAt(i) == '+')) {
+            negative = json.charAt(i) == '-';
+            i++;
+        }
+
+        double result = 0;
+        int digits = 0;
+        while (i < end && Character.isDigit(json.charAt(i))) {
+            result = result * 10 + (json.charAt(i++) - '0');
+            digits++;
+        }
+        if (i < end && json.charAt(i) == '.') {
+            i++;
+            double scale = 0.1;
+            while (i < end && Character.isDigit(json.charAt(i))) {
+                result += (json.charAt(i++) - '0') * scale;
+                scale /= 10;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < end && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (json.charAt(i) == '-' || json.charAt(i) == '+')) {
+                negativeExponent = json.charAt(i) == '-';
+                i++;
+            }
+            int exponent = 0;
+            while (i < end && Character.isDigit(json.charAt(i))) {
+                exponent = exponent * 10 + (json.charAt(i++) - '0');
+            }
+            result *= Math.pow(10, negativeExponent ? -exponent : exponent);
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Lee {@code true}/{@code false} (con o sin comillas) sin avanzar la posición.
+     */
+    private int readBoolean() {
+        if (pos >= json.length()) {
+            return UNKNOWN;
+        }
+        int i = json.charAt(pos) == '"' ? pos + 1 : pos;
+        if (json.startsWith("true", i)) {
+            return 1;
+        }
+        if (json.startsWith("false", i)) {
+            return 0;
+        }
+        return UNKNOWN;
+    }
+
+    private boolean skipValue() {
+        if (pos >= json.length()) {
+            return false;
+        }
+        char c = json.charAt(pos);
+        if (c == '"') {
+            pos++;
+            return skipStringBody();
+        }
+        if (c == '{' || c == '[') {
+            return skipNested();
+        }
+        // Número, true, false o null: hasta el siguiente separador
+        int start = pos;
+        while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private boolean skipNested() {
+        int depth = 0;
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                if (!skipStringBody()) {
+                    return false;
+                }
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Avanza hasta después de la comilla de cierre (la de apertura ya se consumió).
+     */
+    private boolean skipStringBody() {
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean consume(char expected) {
+        if (pos < json.length() && json.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+}
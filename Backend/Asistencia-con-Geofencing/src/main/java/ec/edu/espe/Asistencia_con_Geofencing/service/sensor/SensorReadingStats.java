@@ -0,0 +1,93 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de un grupo de lecturas acumulado en un solo recorrido. La variación del azimut se mide
+ * respecto de la primera lectura, normalizada a (-180°, 180°], así 359° → 1° cuenta como 2°.
+ */
+public final class SensorReadingStats {
+
+    private LocalDateTime firstTime;
+    private LocalDateTime lastTime;
+    private int compassCount;
+    private int azimuthCount;
+    private double firstAzimuth;
+    private double minAzimuthDelta;
+    private double maxAzimuthDelta;
+    private int proximityCount;
+    private int nearCount;
+
+    /**
+     * @param azimuth azimut en grados, o {@link Double#NaN} si la lectura no lo trae
+     * @param near    1, 0 o {@link SensorPayload#UNKNOWN}
+     */
+    public void add(SensorType type, LocalDateTime deviceTime, double azimuth, int near) {
+        if (deviceTime != null) {
+            if (firstTime == null || deviceTime.isBefore(firstTime)) {
+                firstTime = deviceTime;
+            }
+            if (lastTime == null || deviceTime.isAfter(lastTime)) {
+                lastTime = deviceTime;
+            }
+        }
+
+        if (type == SensorType.COMPASS) {
+            compassCount++;
+            if (!Double.isNaN(azimuth)) {
+                addAzimuth(azimuth);
+            }
+        } else if (type == SensorType.PROXIMITY) {
+            proximityCount++;
+            if (near == 1) {
+                nearCount++;
+            }
+        }
+    }
+
+    private void addAzimuth(double azimuth) {
+        if (azimuthCount++ == 0) {
+            firstAzimuth = azimuth;
+            return;
+        }
+        double delta = (azimuth - firstAzimuth) % 360;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta <= -180) {
+            delta += 360;
+        }
+        minAzimuthDelta = Math.min(minAzimuthDelta, delta);
+        maxAzimuthDelta = Math.max(maxAzimuthDelta, delta);
+    }
+
+    public double azimuthVariation() {
+        return azimuthCount < 2 ? 0.0 : maxAzimuthDelta - minAzimuthDelta;
+    }
+
+    public boolean spansAtMost(long seconds) {
+        return firstTime == null || Duration.between(firstTime, lastTime).getSeconds() <= seconds;
+    }
+
+    public LocalDateTime firstTime() {
+        return firstTime;
+    }
+
+    public LocalDateTime lastTime() {
+        return lastTime;
+    }
+
+    public int compassCount() {
+        return compassCount;
+    }
+
+    public int proximityCount() {
+        return proximityCount;
+    }
+
+    public int nearCount() {
+        return nearCount;
+    }
+}
@@ -0,0 +1,117 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.model.SensorSummary;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorEventRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Retención de lecturas crudas de sensores: las lecturas con más de {@code raw-days} días se
+ * resumen por asistencia en {@link SensorSummary} y se eliminan, por tramos de
+ * {@code batch-size} asistencias en transacciones cortas. Las lecturas antiguas sin asistencia
+ * asociada se eliminan sin resumen.
+ */
+@Slf4j
+@Component
+public class SensorRetentionTask {
+
+    private final SensorEventRepository sensorEventRepository;
+    private final SensorSummaryRepository sensorSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rawDays;
+    private final int batchSize;
+
+    public SensorRetentionTask(SensorEventRepository sensorEventRepository,
+                               SensorSummaryRepository sensorSummaryRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${sensors.retention.raw-days:30}") int rawDays,
+                               @Value("${sensors.retention.batch-size:500}") int batchSize) {
+        this.sensorEventRepository = sensorEventRepository;
+        this.sensorSummaryRepository = sensorSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rawDays = rawDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${sensors.retention.cron:0 30 3 * * *}")
+    public void rollupOldReadings() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(rawDays);
+        int summarized = 0;
+        int deleted = 0;
+
+        try {
+            List<UUID> attendanceIds;
+            while (!(attendanceIds = sensorEventRepository.findAttendanceIdsWithReadingsBefore(cutoff, batchSize)).isEmpty()) {
+                List<UUID> chunk = attendanceIds;
+                deleted += transactionTemplate.execute(status -> rollup(chunk));
+                summarized += chunk.size();
+            }
+
+            int removed;
+            while ((removed = transactionTemplate.execute(
+                    status -> sensorEventRepository.deleteUnlinkedBefore(cutoff, batchSize))) > 0) {
+                deleted += removed;
+            }
+            log.info("Retención de sensores: {} asistencias resumidas, {} lecturas eliminadas (anteriores a {})",
+                    summarized, deleted, cutoff);
+        } catch (Exception e) {
+            log.error("Error en la retención de lecturas de sensores", e);
+        }
+    }
+
+    /**
+     * Resume y elimina las lecturas de las asistencias indicadas.
+     *
+     * @return lecturas eliminadas
+     */
+    private int rollup(List<UUID> attendanceIds) {
+        List<PendingSensorEvent> readings = sensorEventRepository.findByAttendanceIds(attendanceIds);
+        List<SensorSummary> summaries = new ArrayList<>(attendanceIds.size());
+
+        // Lecturas ordenadas por asistencia: cada grupo consecutivo es una asistencia
+        int start = 0;
+        while (start < readings.size()) {
+            PendingSensorEvent first = readings.get(start);
+            SensorReadingStats stats = new SensorReadingStats();
+            int end = start;
+            while (end < readings.size() && readings.get(end).getAttendanceId().equals(first.getAttendanceId())) {
+                PendingSensorEvent reading = readings.get(end++);
+                stats.add(reading.getType(), reading.getDeviceTime(),
+                        reading.getAzimuth() != null ? reading.getAzimuth() : Double.NaN,
+                        reading.getNear() == null ? SensorPayload.UNKNOWN : reading.getNear() ? 1 : 0);
+            }
+            summaries.add(summarize(first, stats));
+            start = end;
+        }
+
+        // Una asistencia ya resumida en otra ejecución conserva su resumen
+        summaries.removeIf(summary -> sensorSummaryRepository.existsById(summary.getAttendanceId()));
+        sensorSummaryRepository.saveAll(summaries);
+        return sensorEventRepository.deleteByAttendanceIds(attendanceIds);
+    }
+
+    private SensorSummary summarize(PendingSensorEvent first, SensorReadingStats stats) {
+        SensorSummary summary = new SensorSummary();
+        summary.setAttendanceId(first.getAttendanceId());
+        summary.setUserId(first.getUserId());
+        summary.setSessionId(first.getSessionId());
+        summary.setCompassCount(stats.compassCount());
+        summary.setAzimuthVariation(stats.compassCount() > 0 ? (float) stats.azimuthVariation() : null);
+        summary.setProximityCount(stats.proximityCount());
+        summary.setNearCount(stats.nearCount());
+        summary.setFirstDeviceTime(stats.firstTime());
+        summary.setLastDeviceTime(stats.lastTime());
+        return summary;
+    }
+}
@@ -1,9 +1,17 @@
 package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventsBatchRequest;
 import java.util.UUID;
 
 public interface SensorService {
 
-    UUID registerSensorEvent(UUID userId, RegisterSensorEventRequest request);
+    Long registerSensorEvent(UUID userId, RegisterSensorEventRequest request);
+
+    /**
+     * Acepta un lote de lecturas para escritura diferida.
+     *
+     * @return identificador de aceptación del lote
+     */
+    UUID registerSensorEvents(UUID userId, RegisterSensorEventsBatchRequest request);
 }
@@ -2,39 +2,69 @@ package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
 
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventRequest;
-import ec.edu.espe.Asistencia_con_Geofencing.exception.ResourceNotFoundException;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.RegisterSensorEventsBatchRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
 import ec.edu.espe.Asistencia_con_Geofencing.model.SensorEvent;
 import ec.edu.espe.Asistencia_con_Geofencing.model.User;
 import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorEventRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SensorServiceImpl implements SensorService {
 
     private final SensorEventRepository sensorEventRepository;
     private final UserRepository userRepository;
+    private final SensorEventWriteBehindBuffer writeBehindBuffer;
 
     @Override
-    public UUID registerSensorEvent(UUID userId, RegisterSensorEventRequest request) {
+    public Long registerSensorEvent(UUID userId, RegisterSensorEventRequest request) {
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+        // El usuario viene del token autenticado: basta una referencia para la FK
+        User user = userRepository.getReferenceById(userId);
+        PendingSensorEvent decoded = new SensorPayload()
+                .decode(parseSensorType(request.getType()), request.getValue())
+                .build();
 
         SensorEvent event = new SensorEvent();
         event.setUser(user);
-        event.setType(parseSensorType(request.getType()));
-        event.setValue(request.getValue());
+        event.setType(decoded.getType());
+        event.setAzimuth(decoded.getAzimuth());
+        event.setNear(decoded.getNear());
         event.setDeviceTime(request.getDeviceTime());
         sensorEventRepository.save(event);
         return event.getId();
     }
 
+    @Override
+    public UUID registerSensorEvents(UUID userId, RegisterSensorEventsBatchRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        SensorPayload payload = new SensorPayload();
+        // Se validan todas las lecturas antes de encolar para aceptar el lote completo o ninguna
+        List<PendingSensorEvent> events = request.getEvents().stream()
+                .map(event -> payload.decode(parseSensorType(event.getType()), event.getValue())
+                        .userId(userId)
+                        .sessionId(event.getSessionId())
+                        .deviceTime(event.getDeviceTime())
+                        .serverTime(now)
+                        .build())
+                .toList();
+        writeBehindBuffer.submitAll(events);
+
+        UUID acceptanceId = UUID.randomUUID();
+        log.debug("Lote de sensores {} aceptado: {} lecturas del usuario {}", acceptanceId, events.size(), userId);
+        return acceptanceId;
+    }
+
     private SensorType parseSensorType(String type) {
         try {
             return SensorType.valueOf(type.toUpperCase());
@@ -2,14 +2,10 @@ package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
 
 import ec.edu.espe.Asistencia_con_Geofencing.dto.request.SensorDataDTO;
 import ec.edu.espe.Asistencia_con_Geofencing.dto.response.SensorValidationResult;
-import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,22 +25,17 @@ public class SensorValidationService {
                     "No se recibieron datos de sensores. Validación solo con GPS y QR.");
         }
 
-        // Agrupar por tipo de sensor
-        Map<SensorType, List<SensorDataDTO>> groupedBySensor = sensorData.stream()
-                .collect(Collectors.groupingBy(SensorDataDTO::getType));
-
-        List<SensorDataDTO> compassData = groupedBySensor.getOrDefault(SensorType.COMPASS, List.of());
-        List<SensorDataDTO> proximityData = groupedBySensor.getOrDefault(SensorType.PROXIMITY, List.of());
+        SensorReadingStats stats = collect(sensorData);
 
         // Validar timestamps
-        if (!validateTimestamps(sensorData)) {
+        if (!stats.spansAtMost(MAX_TIME_SPAN_SECONDS)) {
             return SensorValidationResult.invalid(
                     "Los timestamps de los sensores son inválidos o están fuera del rango permitido.");
         }
 
         // Analizar cada tipo de sensor
-        SensorValidationResult.SensorAnalysis compassAnalysis = analyzeCompassData(compassData);
-        SensorValidationResult.SensorAnalysis proximityAnalysis = analyzeProximityData(proximityData);
+        SensorValidationResult.SensorAnalysis compassAnalysis = analyzeCompassData(stats);
+        SensorValidationResult.SensorAnalysis proximityAnalysis = analyzeProximityData(stats);
 
         // Calcular score de confianza
         int trustScore = calculateTrustScore(compassAnalysis, proximityAnalysis, sensorData.size());
@@ -78,26 +69,11 @@ public class SensorValidationService {
                 .build();
     }
 
-    /**
-     * Valida que los timestamps estén en un rango razonable
-     */
-    private boolean validateTimestamps(List<SensorDataDTO> sensorData) {
-        if (sensorData.size() < 2) return true;
-
-        var times = sensorData.stream()
-                .map(SensorDataDTO::getDeviceTime)
-                .sorted()
-                .toList();
-
-        Duration span = Duration.between(times.get(0), times.get(times.size() - 1));
-        return span.getSeconds() <= MAX_TIME_SPAN_SECONDS;
-    }
-
     /**
      * Analiza datos del sensor de brújula
      */
-    private SensorValidationResult.SensorAnalysis analyzeCompassData(List<SensorDataDTO> compassData) {
-        if (compassData.isEmpty()) {
+    private SensorValidationResult.SensorAnalysis analyzeCompassData(SensorReadingStats stats) {
+        if (stats.compassCount() == 0) {
             return SensorValidationResult.SensorAnalysis.builder()
                     .readingsCount(0)
                     .hasVariation(false)
@@ -107,9 +83,9 @@ public class SensorValidationService {
                     .build();
         }
 
-        if (compassData.size() < MIN_READINGS) {
+        if (stats.compassCount() < MIN_READINGS) {
             return SensorValidationResult.SensorAnalysis.builder()
-                    .readingsCount(compassData.size())
+                    .readingsCount(stats.compassCount())
                     .hasVariation(false)
                     .variationScore(20)
                     .status("WARNING")
@@ -118,7 +94,7 @@ public class SensorValidationService {
         }
 
         // Calcular variación en los valores
-        double variation = calculateCompassVariation(compassData);
+        double variation = stats.azimuthVariation();
         boolean hasVariation = variation >= MIN_COMPASS_VARIATION;
 
         String status;
@@ -140,7 +116,7 @@ public class SensorValidationService {
         }
 
         return SensorValidationResult.SensorAnalysis.builder()
-                .readingsCount(compassData.size())
+                .readingsCount(stats.compassCount())
                 .hasVariation(hasVariation)
                 .variationScore(score)
                 .status(status)
@@ -148,40 +124,11 @@ public class SensorValidationService {
                 .build();
     }
 
-    /**
-     * Calcula la variación en las lecturas de brújula
-     */
-    private double calculateCompassVariation(List<SensorDataDTO> compassData) {
-        try {
-            List<Double> azimuthValues = compassData.stream()
-                    .map(data -> {
-                        String value = data.getValue();
-                        // Parse JSON simple: {"azimuth": "180.5", "pitch": "10.2"} o {"azimuth": 180.5}
-                        String azimuthStr = value.split("\"azimuth\":")[1]
-                                .split(",")[0]
-                                .trim()
-                                .replaceAll("\"", ""); // Remover comillas si existen
-                        return Double.parseDouble(azimuthStr);
-                    })
-                    .toList();
-
-            if (azimuthValues.size() < 2) return 0.0;
-
-            double max = azimuthValues.stream().max(Double::compare).orElse(0.0);
-            double min = azimuthValues.stream().min(Double::compare).orElse(0.0);
-
-            return max - min;
-        } catch (Exception e) {
-            log.warn("Error calculando variación de brújula: {}", e.getMessage());
-            return 0.0;
-        }
-    }
-
     /**
      * Analiza datos del sensor de proximidad
      */
-    private SensorValidationResult.SensorAnalysis analyzeProximityData(List<SensorDataDTO> proximityData) {
-        if (proximityData.isEmpty()) {
+    private SensorValidationResult.SensorAnalysis analyzeProximityData(SensorReadingStats stats) {
+        if (stats.proximityCount() == 0) {
             return SensorValidationResult.SensorAnalysis.builder()
                     .readingsCount(0)
                     .hasVariation(false)
@@ -191,13 +138,8 @@ public class SensorValidationService {
                     .build();
         }
 
-        // Contar cuántas veces el sensor detectó proximidad (near = true)
-        long nearCount = proximityData.stream()
-                .filter(data -> data.getValue().contains("\"near\":true") || 
-                               data.getValue().contains("\"near\": true"))
-                .count();
-
-        double nearPercentage = (double) nearCount / proximityData.size() * 100;
+        // Porcentaje de lecturas en las que el sensor detectó proximidad (near = true)
+        double nearPercentage = (double) stats.nearCount() / stats.proximityCount() * 100;
 
         String status;
         String details;
@@ -218,8 +160,8 @@ public class SensorValidationService {
         }
 
         return SensorValidationResult.SensorAnalysis.builder()
-                .readingsCount(proximityData.size())
-                .hasVariation(nearCount > 0)
+                .readingsCount(stats.proximityCount())
+                .hasVariation(stats.nearCount() > 0)
                 .variationScore(score)
                 .status(status)
                 .details(details)
@@ -251,4 +193,16 @@ public class SensorValidationService {
                 readingsScore * readingsWeight
         );
     }
+
+    private SensorReadingStats collect(List<SensorDataDTO> sensorData) {
+        SensorPayload payload = new SensorPayload();
+        SensorReadingStats stats = new SensorReadingStats();
+        for (SensorDataDTO data : sensorData) {
+            boolean parsed = payload.parse(data.getValue());
+            stats.add(data.getType(), data.getDeviceTime(),
+                    parsed ? payload.azimuth() : Double.NaN,
+                    parsed ? payload.near() : SensorPayload.UNKNOWN);
+        }
+        return stats;
+    }
 }
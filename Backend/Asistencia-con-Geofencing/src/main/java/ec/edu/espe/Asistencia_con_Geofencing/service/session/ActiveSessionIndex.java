@@ -0,0 +1,123 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.session;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.session.ActiveSessionLocation;
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Sesiones activas con la forma de su geocerca, en memoria (por nodo).
+ *
+ * Responde "sesiones activas más cercanas a un punto" sin consultar la base de datos ni cargar
+ * docentes y geocercas de forma perezosa. Las sesiones activas son pocas (cientos), así que se
+ * recorren todas midiendo la distancia con {@link GeofenceShape} y se conservan las
+ * {@code limit} mejores. Se actualiza al crear y finalizar sesiones; un refresco periódico recoge
+ * los cambios hechos en otros nodos.
+ */
+@Slf4j
+@Component
+public class ActiveSessionIndex {
+
+    private static final Comparator<SessionMatch> BY_DISTANCE = Comparator.comparingDouble(SessionMatch::distance);
+
+    private final AttendanceSessionRepository sessionRepository;
+    private volatile List<IndexedSession> sessions;
+
+    public ActiveSessionIndex(AttendanceSessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    /**
+     * Sesiones activas ordenadas por distancia al punto.
+     *
+     * @param maxDistanceMeters distancia máxima a la geocerca, o null para no limitarla
+     */
+    public List<SessionMatch> nearest(double latitude, double longitude, Double maxDistanceMeters, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        // Montículo de máximos: la cabeza es la peor de las mejores encontradas
+        PriorityQueue<SessionMatch> best = new PriorityQueue<>(limit, BY_DISTANCE.reversed());
+        for (IndexedSession session : current()) {
+            double distance = session.shape().distanceMeters(latitude, longitude);
+            if (maxDistanceMeters != null && distance > maxDistanceMeters) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new SessionMatch(session.location(), distance, session.shape().isWithin(distance)));
+            } else if (distance < best.peek().distance()) {
+                best.poll();
+                best.add(new SessionMatch(session.location(), distance, session.shape().isWithin(distance)));
+            }
+        }
+
+        List<SessionMatch> result = new ArrayList<>(best);
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${session.index.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        sessions = sessionRepository.findActiveSessionLocations().stream()
+                .map(IndexedSession::of)
+                .toList();
+        log.debug("Índice de sesiones activas cargado con {} sesiones", sessions.size());
+    }
+
+    /**
+     * Registra una sesión recién creada. La sesión debe tener docente y geocerca cargados.
+     */
+    public synchronized void add(AttendanceSession session) {
+        GeofenceZone zone = session.getGeofence();
+        ActiveSessionLocation location = new ActiveSessionLocation(session.getId(), session.getName(),
+                session.getTeacher().getFullName(), zone.getName(), zone.getLatitude(), zone.getLongitude(),
+                zone.getRadiusMeters(), zone.getPolygonVertices(), session.getStartTime(), session.getEndTime());
+
+        List<IndexedSession> updated = new ArrayList<>(current());
+        updated.removeIf(indexed -> indexed.location().getSessionId().equals(session.getId()));
+        updated.add(new IndexedSession(location, zone.getShape()));
+        sessions = List.copyOf(updated);
+    }
+
+    public synchronized void remove(UUID sessionId) {
+        List<IndexedSession> updated = new ArrayList<>(current());
+        if (updated.removeIf(indexed -> indexed.location().getSessionId().equals(sessionId))) {
+            sessions = List.copyOf(updated);
+        }
+    }
+
+    private List<IndexedSession> current() {
+        List<IndexedSession> current = sessions;
+        if (current == null) {
+            synchronized (this) {
+                if (sessions == null) {
+                    refresh();
+                }
+                current = sessions;
+            }
+        }
+        return current;
+    }
+
+    public record SessionMatch(ActiveSessionLocation location, double distance, boolean withinZone) {
+    }
+
+    private record IndexedSession(ActiveSessionLocation location, GeofenceShape shape) {
+
+        static IndexedSession of(ActiveSessionLocation location) {
+            return new IndexedSession(location, GeofenceShape.of(location.getZoneLatitude(),
+                    location.getZoneLongitude(), location.getRadiusMeters(), location.getPolygonVertices()));
+        }
+    }
+}
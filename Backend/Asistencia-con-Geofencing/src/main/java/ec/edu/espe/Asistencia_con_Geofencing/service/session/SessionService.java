@@ -15,5 +15,7 @@ public interface SessionService {
     Page<SessionResponse> getMySessionsAsTeacher(UUID teacherId, Pageable pageable);
     SessionResponse endSession(UUID sessionId, UUID teacherId);
     List<SessionWithDistanceResponse> getActiveSessionsWithDistances(BigDecimal latitude, BigDecimal longitude);
+    List<SessionWithDistanceResponse> getNearestActiveSessions(BigDecimal latitude, BigDecimal longitude,
+                                                               Double maxDistanceMeters, int limit);
 
 }
@@ -14,15 +14,21 @@ import ec.edu.espe.Asistencia_con_Geofencing.model.User;
 import ec.edu.espe.Asistencia_con_Geofencing.model.enums.RoleType;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.GeofenceZoneRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.StudentStatisticsRepository;
 import ec.edu.espe.Asistencia_con_Geofencing.repository.UserRepository;
-import ec.edu.espe.Asistencia_con_Geofencing.service.geofence.GeofenceService;
+import ec.edu.espe.Asistencia_con_Geofencing.service.attendance.ScanAdmissionControl;
+import ec.edu.espe.Asistencia_con_Geofencing.service.dashboard.DashboardInvalidations;
 import ec.edu.espe.Asistencia_con_Geofencing.service.notification.NotificationService;
 import ec.edu.espe.Asistencia_con_Geofencing.service.notification.push.PushNotificationService;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrTokenRegistry;
+import ec.edu.espe.Asistencia_con_Geofencing.utils.GeofenceShape;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -39,7 +45,13 @@ public class SessionServiceImpl implements SessionService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final PushNotificationService pushNotificationService;
-    private final GeofenceService geofenceService;
+    private final ActiveQrTokenRegistry activeQrTokenRegistry;
+    private final ScanAdmissionControl scanAdmissionControl;
+    private final ActiveSessionIndex activeSessionIndex;
+    private final StudentStatisticsRepository studentStatisticsRepository;
+    private final DashboardInvalidations dashboardInvalidations;
+
+    private static final int MAX_NEAREST_SESSIONS = 100;
 
     @Override
     @Transactional
@@ -68,6 +80,9 @@ public class SessionServiceImpl implements SessionService {
         session.setStartTime(request.getStartTime());
         session.setActive(true);
         session = sessionRepository.save(session);
+        AttendanceSession created = session;
+        afterCommit(() -> activeSessionIndex.add(created));
+        dashboardInvalidations.invalidate(List.of(teacherId));
         return SessionMapper.mapToResponse(session);
     }
 
@@ -90,16 +105,29 @@ public class SessionServiceImpl implements SessionService {
     @Transactional
     public SessionResponse endSession(UUID sessionId, UUID teacherId) {
 
-        AttendanceSession session = sessionRepository.findById(sessionId)
+        // Con la fila bloqueada, una asistencia concurrente se cuenta como elegible al insertarse
+        // (confirmó antes) o al finalizar (espera y ve la sesión inactiva), nunca en ambos
+        AttendanceSession session = sessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Sesión no encontrada"));
 
         if (!session.getTeacher().getId().equals(teacherId)) {
             throw new UnauthorizedException("No tienes permiso para finalizar esta sesión");
         }
 
+        boolean wasActive = Boolean.TRUE.equals(session.getActive());
         session.setActive(false);
         session.setEndTime(LocalDateTime.now());
         sessionRepository.save(session);
+        if (wasActive) {
+            // Solo la primera finalización cuenta la sesión como elegible para los ausentes
+            studentStatisticsRepository.countSessionEnded(sessionId);
+        }
+        dashboardInvalidations.invalidate(List.of(teacherId));
+        afterCommit(() -> {
+            activeQrTokenRegistry.evictSession(sessionId);
+            scanAdmissionControl.forgetSession(sessionId);
+            activeSessionIndex.remove(sessionId);
+        });
 
         List<Notification> notifications =
                 notificationService.createAbsenceNotifications(session);
@@ -119,20 +147,18 @@ public class SessionServiceImpl implements SessionService {
     @Transactional(readOnly = true)
     public List<SessionWithDistanceResponse> getActiveSessionsWithDistances(BigDecimal latitude, BigDecimal longitude) {
         List<AttendanceSession> activeSessions = sessionRepository.findByActiveTrue();
+        double studentLatitude = latitude.doubleValue();
+        double studentLongitude = longitude.doubleValue();
         
         return activeSessions.stream()
                 .map(session -> {
                     GeofenceZone zone = session.getGeofence();
                     
                     // Calcular distancia desde la ubicación del estudiante a la zona
-                    double distance = geofenceService.calculateDistance(
-                            latitude,
-                            longitude,
-                            zone.getLatitude(),
-                            zone.getLongitude()
-                    );
+                    GeofenceShape shape = zone.getShape();
+                    double distance = shape.distanceMeters(studentLatitude, studentLongitude);
                     
-                    boolean withinZone = distance <= zone.getRadiusMeters();
+                    boolean withinZone = shape.isWithin(distance);
                     
                     return SessionWithDistanceResponse.builder()
                             .sessionId(session.getId())
@@ -153,4 +179,43 @@ public class SessionServiceImpl implements SessionService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<SessionWithDistanceResponse> getNearestActiveSessions(BigDecimal latitude, BigDecimal longitude,
+                                                                      Double maxDistanceMeters, int limit) {
+        return activeSessionIndex.nearest(latitude.doubleValue(), longitude.doubleValue(), maxDistanceMeters,
+                        Math.min(limit, MAX_NEAREST_SESSIONS)).stream()
+                .map(match -> SessionWithDistanceResponse.builder()
+                        .sessionId(match.location().getSessionId())
+                        .name(match.location().getName())
+                        .teacherName(match.location().getTeacherName())
+                        .zoneName(match.location().getZoneName())
+                        .zoneLatitude(match.location().getZoneLatitude().doubleValue())
+                        .zoneLongitude(match.location().getZoneLongitude().doubleValue())
+                        .radiusMeters(match.location().getRadiusMeters())
+                        .distanceInMeters(match.distance())
+                        .withinZone(match.withinZone())
+                        .qrToken(null)
+                        .startTime(match.location().getStartTime())
+                        .endTime(match.location().getEndTime())
+                        .active(true)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Aplica un cambio a las estructuras en memoria solo si la transacción se confirma; si se revierte,
+     * la sesión sigue como estaba en la base de datos.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
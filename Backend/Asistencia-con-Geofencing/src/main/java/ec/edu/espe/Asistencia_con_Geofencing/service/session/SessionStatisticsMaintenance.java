@@ -0,0 +1,144 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.session;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceDailyCountRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SessionStatisticsRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.StudentStatisticsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mantenimiento de {@code session_statistics}: carga inicial desde las asistencias existentes y
+ * verificación periódica de que los contadores coinciden con las asistencias de las sesiones
+ * recientes. La carga inicial también recalcula {@code student_statistics} y reconstruye
+ * {@code attendance_daily_counts}.
+ *
+ * Solo se corrigen sesiones finalizadas: recalcular una sesión activa mientras se insertan
+ * asistencias podría pisar un incremento concurrente. Las activas se reportan y se corrigen en una
+ * verificación posterior, cuando ya terminaron.
+ *
+ * La misma verificación concilia {@code student_statistics} con todas las sesiones y asistencias.
+ * Ahí la corrección suma la diferencia en lugar de reemplazar el valor, así que es segura aunque
+ * haya sesiones activas.
+ */
+@Slf4j
+@Component
+public class SessionStatisticsMaintenance {
+
+    private final SessionStatisticsRepository statisticsRepository;
+    private final StudentStatisticsRepository studentStatisticsRepository;
+    private final AttendanceDailyCountRepository dailyCountRepository;
+    private final AttendanceSessionRepository sessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int checkWindowDays;
+    private final Counter inconsistencies;
+    private final Counter studentInconsistencies;
+
+    public SessionStatisticsMaintenance(SessionStatisticsRepository statisticsRepository,
+                                        StudentStatisticsRepository studentStatisticsRepository,
+                                        AttendanceDailyCountRepository dailyCountRepository,
+                                        AttendanceSessionRepository sessionRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${session.statistics.backfill-on-startup:false}") boolean backfillOnStartup,
+                                        @Value("${session.statistics.check-window-days:7}") int checkWindowDays) {
+        this.statisticsRepository = statisticsRepository;
+        this.studentStatisticsRepository = studentStatisticsRepository;
+        this.dailyCountRepository = dailyCountRepository;
+        this.sessionRepository = sessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.checkWindowDays = checkWindowDays;
+        this.inconsistencies = Counter.builder("session.statistics.inconsistent").register(meterRegistry);
+        this.studentInconsistencies = Counter.builder("student.statistics.inconsistent").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Recalcula los contadores de todas las sesiones y estudiantes y los conteos diarios a partir de
+     * las asistencias.
+     */
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        Integer written = transactionTemplate.execute(status -> statisticsRepository.recomputeAll());
+        log.info("Estadísticas de sesión recalculadas: {} sesiones en {} ms", written, System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        Integer students = transactionTemplate.execute(status -> studentStatisticsRepository.recomputeAll());
+        log.info("Estadísticas de estudiante recalculadas: {} estudiantes en {} ms", students, System.currentTimeMillis() - start);
+
+        rebuildDailyCounts();
+    }
+
+    /**
+     * Reconstruye {@code attendance_daily_counts} en una sola transacción: las lecturas concurrentes
+     * ven los conteos anteriores hasta el commit.
+     */
+    public void rebuildDailyCounts() {
+        long start = System.currentTimeMillis();
+        Integer written = transactionTemplate.execute(status -> dailyCountRepository.rebuildAll());
+        log.info("Conteos diarios de asistencia reconstruidos: {} filas en {} ms", written, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${session.statistics.check-interval-ms:3600000}",
+            initialDelayString = "${session.statistics.check-interval-ms:3600000}")
+    public void checkConsistency() {
+        checkSessionConsistency();
+        checkStudentConsistency();
+    }
+
+    private void checkSessionConsistency() {
+        try {
+            List<UUID> inconsistent = statisticsRepository.findInconsistentSessionIds(
+                    LocalDateTime.now().minusDays(checkWindowDays));
+            if (inconsistent.isEmpty()) {
+                return;
+            }
+            inconsistencies.increment(inconsistent.size());
+
+            List<UUID> finished = sessionRepository.findAllById(inconsistent).stream()
+                    .filter(session -> !Boolean.TRUE.equals(session.getActive()))
+                    .map(AttendanceSession::getId)
+                    .toList();
+            if (!finished.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> statisticsRepository.recompute(finished));
+            }
+            log.warn("Estadísticas de sesión inconsistentes: {} sesiones, {} corregidas (finalizadas)",
+                    inconsistent.size(), finished.size());
+        } catch (Exception e) {
+            log.error("Error verificando las estadísticas de sesión", e);
+        }
+    }
+
+    private void checkStudentConsistency() {
+        try {
+            Integer corrected = transactionTemplate.execute(status -> studentStatisticsRepository.reconcile());
+            if (corrected != null && corrected > 0) {
+                studentInconsistencies.increment(corrected);
+                log.warn("Estadísticas de estudiante inconsistentes: {} estudiantes corregidos", corrected);
+            }
+        } catch (Exception e) {
+            log.error("Error verificando las estadísticas de estudiante", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+/**
+ * Cálculo de distancias geodésicas con {@code double}, sin BigDecimal ni objetos intermedios.
+ *
+ * {@link #distanceMeters(Center, double, double, double)} usa primero la aproximación
+ * equirectangular (sin funciones trigonométricas, gracias al seno y coseno precalculados del centro)
+ * y solo recurre a Haversine cuando el punto queda cerca del borde del radio, donde el error de la
+ * aproximación podría cambiar el resultado de la validación.
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_METERS = 6371000.0;
+
+    // Margen alrededor del radio dentro del cual se calcula Haversine exacto
+    private static final double BOUNDARY_TOLERANCE = 0.01;
+    private static final double MIN_BOUNDARY_MARGIN_METERS = 1.0;
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Distancia Haversine entre dos puntos en grados.
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        return haversine(lat2Rad - lat1Rad, Math.toRadians(lon2 - lon1), Math.cos(lat1Rad), Math.cos(lat2Rad));
+    }
+
+    /**
+     * Distancia desde el centro de una zona hasta el punto. Es exacta cerca del radio; lejos de él
+     * se devuelve la aproximación equirectangular, cuyo error es despreciable a escala de campus.
+     */
+    public static double distanceMeters(Center center, double latitude, double longitude, double radiusMeters) {
+        double latRad = Math.toRadians(latitude);
+        double deltaLat = latRad - center.latRad();
+        double deltaLon = normalizeLongitude(Math.toRadians(longitude) - center.lonRad());
+
+        // cos(φc + Δφ/2) ≈ cos φc − sin φc · Δφ/2
+        double cosMidLat = center.cosLat() - center.sinLat() * deltaLat / 2;
+        double x = deltaLon * cosMidLat;
+        double approximate = EARTH_RADIUS_METERS * Math.sqrt(x * x + deltaLat * deltaLat);
+
+        double margin = Math.max(radiusMeters * BOUNDARY_TOLERANCE, MIN_BOUNDARY_MARGIN_METERS);
+        if (Math.abs(approximate - radiusMeters) > margin) {
+            return approximate;
+        }
+        return haversine(deltaLat, deltaLon, center.cosLat(), Math.cos(latRad));
+    }
+
+    /**
+     * Indica si el punto es una coordenada finita dentro de [-90, 90] × [-180, 180].
+     */
+    public static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90.0 && latitude <= 90.0 && longitude >= -180.0 && longitude <= 180.0;
+    }
+
+    private static double haversine(double deltaLat, double deltaLon, double cosLat1, double cosLat2) {
+        double sinHalfLat = Math.sin(deltaLat / 2);
+        double sinHalfLon = Math.sin(deltaLon / 2);
+        double a = sinHalfLat * sinHalfLat + cosLat1 * cosLat2 * sinHalfLon * sinHalfLon;
+        return EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static double normalizeLongitude(double deltaLon) {
+        if (deltaLon > Math.PI) {
+            return deltaLon - 2 * Math.PI;
+        }
+        if (deltaLon < -Math.PI) {
+            return deltaLon + 2 * Math.PI;
+        }
+        return deltaLon;
+    }
+
+    /**
+     * Centro de una zona con radianes, seno y coseno precalculados.
+     */
+    public record Center(double latitude, double longitude, double latRad, double lonRad,
+                         double sinLat, double cosLat) {
+
+        public static Center of(double latitude, double longitude) {
+            double latRad = Math.toRadians(latitude);
+            return new Center(latitude, longitude, latRad, Math.toRadians(longitude),
+                    Math.sin(latRad), Math.cos(latRad));
+        }
+
+        public boolean isAt(double latitude, double longitude) {
+            return this.latitude == latitude && this.longitude == longitude;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Polígono de una geocerca con su rectángulo envolvente precalculado.
+ *
+ * Se guarda en la base de datos como un arreglo de vértices codificado (latitud y longitud en
+ * enteros de 1e-7 grados, 8 bytes por vértice). Las comprobaciones descartan primero por el
+ * rectángulo envolvente y solo después aplican ray casting; ninguna reserva memoria.
+ */
+public final class GeoPolygon {
+
+    private static final double SCALE = 1e7;
+    private static final int BYTES_PER_VERTEX = 2 * Integer.BYTES;
+    private static final double METERS_PER_DEGREE = Math.PI * GeoDistance.EARTH_RADIUS_METERS / 180.0;
+
+    private final byte[] encoded;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+
+    private GeoPolygon(byte[] encoded, double[] latitudes, double[] longitudes) {
+        this.encoded = encoded;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        this.minLatitude = minLat;
+        this.maxLatitude = maxLat;
+        this.minLongitude = minLon;
+        this.maxLongitude = maxLon;
+    }
+
+    public static GeoPolygon of(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length || latitudes.length < 3) {
+            throw new IllegalArgumentException("Un polígono requiere al menos 3 vértices");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(latitudes.length * BYTES_PER_VERTEX);
+        for (int i = 0; i < latitudes.length; i++) {
+            buffer.putInt((int) Math.round(latitudes[i] * SCALE));
+            buffer.putInt((int) Math.round(longitudes[i] * SCALE));
+        }
+        return decode(buffer.array());
+    }
+
+    public static GeoPolygon decode(byte[] encoded) {
+        if (encoded.length % BYTES_PER_VERTEX != 0 || encoded.length < 3 * BYTES_PER_VERTEX) {
+            throw new IllegalArgumentException("Polígono codificado inválido");
+        }
+        int count = encoded.length / BYTES_PER_VERTEX;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = buffer.getInt() / SCALE;
+            longitudes[i] = buffer.getInt() / SCALE;
+        }
+        return new GeoPolygon(encoded, latitudes, longitudes);
+    }
+
+    public byte[] encoded() {
+        return encoded;
+    }
+
+    public boolean isDecodedFrom(byte[] encoded) {
+        return this.encoded == encoded;
+    }
+
+    public int vertexCount() {
+        return latitudes.length;
+    }
+
+    public double latitude(int vertex) {
+        return latitudes[vertex];
+    }
+
+    public double longitude(int vertex) {
+        return longitudes[vertex];
+    }
+
+    public double centerLatitude() {
+        return (minLatitude + maxLatitude) / 2;
+    }
+
+    public double centerLongitude() {
+        return (minLongitude + maxLongitude) / 2;
+    }
+
+    /**
+     * Radio del círculo centrado en {@link #centerLatitude()}/{@link #centerLongitude()} que contiene
+     * todos los vértices.
+     */
+    public int boundingRadiusMeters() {
+        double radius = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            radius = Math.max(radius, GeoDistance.haversineMeters(centerLatitude(), centerLongitude(),
+                    latitudes[i], longitudes[i]));
+        }
+        return (int) Math.ceil(radius);
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+
+        boolean inside = false;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[j] > latitude)
+                    && longitude < (longitudes[j] - longitudes[i]) * (latitude - latitudes[i])
+                    / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Distancia en metros desde el punto hasta el borde del polígono, o 0 si está dentro.
+     * Usa una proyección plana local, suficiente a escala de campus.
+     */
+    public double distanceMeters(double latitude, double longitude) {
+        if (contains(latitude, longitude)) {
+            return 0;
+        }
+        return edgeDistanceMeters(latitude, longitude);
+    }
+
+    /**
+     * Distancia en metros desde el punto hasta el lado más cercano, esté dentro o fuera.
+     */
+    public double edgeDistanceMeters(double latitude, double longitude) {
+        double metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        double minSquared = Double.POSITIVE_INFINITY;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            // Extremos del lado relativos al punto, en metros
+            double ax = (longitudes[j] - longitude) * metersPerDegreeLon;
+            double ay = (latitudes[j] - latitude) * METERS_PER_DEGREE;
+            double bx = (longitudes[i] - longitude) * metersPerDegreeLon;
+            double by = (latitudes[i] - latitude) * METERS_PER_DEGREE;
+
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+            double px = ax + t * dx;
+            double py = ay + t * dy;
+            minSquared = Math.min(minSquared, px * px + py * py);
+        }
+        return Math.sqrt(minSquared);
+    }
+}
@@ -0,0 +1,63 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Forma de una geocerca lista para validar ubicaciones: círculo (centro y radio) o polígono.
+ *
+ * En zonas circulares la distancia se mide al centro y se compara con el radio; en zonas
+ * poligonales se mide al borde (0 dentro) y no se admite tolerancia. El centro y el radio de una
+ * zona poligonal son los de su círculo envolvente.
+ *
+ * @param polygon polígono de la zona, o null si es circular
+ */
+public record GeofenceShape(GeoDistance.Center center, int radiusMeters, GeoPolygon polygon) {
+
+    public static GeofenceShape of(BigDecimal latitude, BigDecimal longitude, Integer radiusMeters,
+                                   byte[] polygonVertices) {
+        return new GeofenceShape(GeoDistance.Center.of(latitude.doubleValue(), longitude.doubleValue()),
+                radiusMeters, polygonVertices != null ? GeoPolygon.decode(polygonVertices) : null);
+    }
+
+    public double distanceMeters(double latitude, double longitude) {
+        if (polygon != null) {
+            return polygon.distanceMeters(latitude, longitude);
+        }
+        return GeoDistance.distanceMeters(center, latitude, longitude, radiusMeters);
+    }
+
+    /**
+     * Distancia máxima admitida para considerar el punto dentro de la zona.
+     */
+    public int allowedDistanceMeters() {
+        return polygon != null ? 0 : radiusMeters;
+    }
+
+    public boolean isWithin(double distance) {
+        return distance <= allowedDistanceMeters();
+    }
+
+    /**
+     * Clasifica el disco de radio {@code marginMeters} alrededor del punto respecto de la zona.
+     */
+    public Containment classify(double latitude, double longitude, double marginMeters) {
+        if (polygon != null) {
+            if (polygon.edgeDistanceMeters(latitude, longitude) <= marginMeters) {
+                return Containment.BOUNDARY;
+            }
+            return polygon.contains(latitude, longitude) ? Containment.INSIDE : Containment.OUTSIDE;
+        }
+
+        double distance = GeoDistance.haversineMeters(center.latitude(), center.longitude(), latitude, longitude);
+        if (distance + marginMeters <= radiusMeters) {
+            return Containment.INSIDE;
+        }
+        return distance - marginMeters > radiusMeters ? Containment.OUTSIDE : Containment.BOUNDARY;
+    }
+
+    public enum Containment {
+        INSIDE,
+        OUTSIDE,
+        BOUNDARY
+    }
+}
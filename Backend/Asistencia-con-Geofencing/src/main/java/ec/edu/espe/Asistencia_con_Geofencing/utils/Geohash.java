@@ -0,0 +1,68 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+/**
+ * Codificación geohash (base 32) con los límites de la celda resultante.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static Cell cell(double latitude, double longitude, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+
+        for (int c = 0; c < precision; c++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                index <<= 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index |= 1;
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index |= 1;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[c] = BASE32[index];
+        }
+        return new Cell(new String(hash), minLat, maxLat, minLon, maxLon);
+    }
+
+    public record Cell(String hash, double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+        public double centerLatitude() {
+            return (minLatitude + maxLatitude) / 2;
+        }
+
+        public double centerLongitude() {
+            return (minLongitude + maxLongitude) / 2;
+        }
+
+        /**
+         * Distancia del centro de la celda a sus esquinas: cualquier punto de la celda está a lo
+         * sumo a esta distancia del centro.
+         */
+        public double halfDiagonalMeters() {
+            return GeoDistance.haversineMeters(centerLatitude(), centerLongitude(),
+                    Math.abs(minLatitude) < Math.abs(maxLatitude) ? minLatitude : maxLatitude, maxLongitude);
+        }
+    }
+}
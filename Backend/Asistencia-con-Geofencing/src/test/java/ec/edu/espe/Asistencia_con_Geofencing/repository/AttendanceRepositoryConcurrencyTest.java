@@ -0,0 +1,160 @@
+package ec.edu.espe.Asistencia_con_Geofencing.repository;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.AttendanceInsertResult;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.model.User;
+import ec.edu.espe.Asistencia_con_Geofencing.support.RequiresDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escaneos simultáneos del mismo estudiante en la misma sesión. Cada inserción corre en su propia
+ * transacción (sin la transacción del test), así que los datos se crean y se borran explícitamente.
+ */
+@RequiresDatabase
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttendanceRepositoryConcurrencyTest {
+
+    private static final int CONCURRENT_SCANS = 8;
+    private static final BigDecimal LATITUDE = new BigDecimal("-0.31260000");
+    private static final BigDecimal LONGITUDE = new BigDecimal("-78.44530000");
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSessionRepository sessionRepository;
+
+    @Autowired
+    private GeofenceZoneRepository geofenceZoneRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User teacher;
+    private User student;
+    private GeofenceZone zone;
+    private AttendanceSession session;
+
+    @BeforeEach
+    void createSession() {
+        teacher = userRepository.save(user("docente"));
+        student = userRepository.save(user("estudiante"));
+
+        GeofenceZone newZone = new GeofenceZone();
+        newZone.setName("Bloque A");
+        newZone.setLatitude(LATITUDE);
+        newZone.setLongitude(LONGITUDE);
+        newZone.setRadiusMeters(50);
+        zone = geofenceZoneRepository.save(newZone);
+
+        AttendanceSession newSession = new AttendanceSession();
+        newSession.setName("Sesión concurrente");
+        newSession.setTeacher(teacher);
+        newSession.setGeofence(zone);
+        newSession.setStartTime(LocalDateTime.now().minusMinutes(10));
+        newSession.setActive(true);
+        session = sessionRepository.save(newSession);
+    }
+
+    @AfterEach
+    void deleteSession() {
+        jdbcTemplate.update("DELETE FROM session_statistics WHERE session_id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM attendance_daily_counts WHERE session_id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM attendances WHERE session_id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM attendance_sessions WHERE id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM geofence_zones WHERE id = ?", zone.getId());
+        for (User user : List.of(student, teacher)) {
+            jdbcTemplate.update("DELETE FROM student_statistics WHERE student_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM dashboard_invalidations WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+    }
+
+    @Test
+    void concurrentScansOfTheSameStudentInsertExactlyOneRow() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_SCANS);
+        CyclicBarrier start = new CyclicBarrier(CONCURRENT_SCANS);
+        List<AttendanceInsertResult> results = new ArrayList<>();
+        try {
+            List<Future<Optional<AttendanceInsertResult>>> scans = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_SCANS; i++) {
+                scans.add(executor.submit(() -> {
+                    start.await();
+                    return attendanceRepository.insertIfAbsent(row());
+                }));
+            }
+            // Ninguna inserción puede fallar con la violación de la restricción única
+            for (Future<Optional<AttendanceInsertResult>> scan : scans) {
+                scan.get(30, TimeUnit.SECONDS).ifPresent(results::add);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<AttendanceInsertResult> inserted = results.stream().filter(AttendanceInsertResult::isInserted).toList();
+        assertEquals(1, inserted.size());
+        // Los perdedores informan la asistencia existente (o nada, si la vieron antes de su confirmación)
+        UUID attendanceId = inserted.get(0).getAttendanceId();
+        assertTrue(results.stream().allMatch(result -> result.getAttendanceId().equals(attendanceId)));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM attendances WHERE session_id = ? AND student_id = ?",
+                Integer.class, session.getId(), student.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT total_attendances FROM session_statistics WHERE session_id = ?",
+                Integer.class, session.getId()));
+    }
+
+    private PendingAttendance row() {
+        LocalDateTime now = LocalDateTime.now();
+        return PendingAttendance.builder()
+                .id(UUID.randomUUID())
+                .sessionId(session.getId())
+                .studentId(student.getId())
+                .deviceTime(now)
+                .serverTime(now)
+                .latitude(LATITUDE)
+                .longitude(LONGITUDE)
+                .withinGeofence(true)
+                .trustScore(100)
+                .synced(false)
+                .build();
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + UUID.randomUUID() + "@test.espe.edu.ec");
+        user.setFullName(name);
+        return user;
+    }
+}
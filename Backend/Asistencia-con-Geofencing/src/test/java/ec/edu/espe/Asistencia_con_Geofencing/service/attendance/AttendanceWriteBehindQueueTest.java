@@ -0,0 +1,136 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.ServiceUnavailableException;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AttendanceWriteBehindQueueTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final AttendanceRepository attendanceRepository = mock(AttendanceRepository.class);
+    private final List<Integer> statementSizes = new CopyOnWriteArrayList<>();
+    private AttendanceWriteBehindQueue queue;
+
+    @AfterEach
+    void stopFlusher() throws InterruptedException {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void coalescesConcurrentScansIntoBoundedBatches() throws Exception {
+        when(attendanceRepository.insertAllIfAbsent(anyList())).thenAnswer(invocation -> insertAll(invocation.getArgument(0)));
+        queue = start("write-behind", 5000);
+
+        List<CompletableFuture<Boolean>> acks = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            acks.add(queue.submit(row()));
+        }
+
+        for (CompletableFuture<Boolean> ack : acks) {
+            assertTrue(ack.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(120, statementSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(statementSizes.stream().allMatch(size -> size <= BATCH_SIZE));
+        assertTrue(statementSizes.size() < 120);
+    }
+
+    @Test
+    void alreadyRegisteredRowIsAcknowledgedAsNotInserted() throws Exception {
+        PendingAttendance duplicate = row();
+        when(attendanceRepository.insertAllIfAbsent(anyList())).thenAnswer(invocation -> {
+            List<PendingAttendance> rows = invocation.getArgument(0);
+            return rows.stream().map(PendingAttendance::getId)
+                    .filter(id -> !id.equals(duplicate.getId()))
+                    .collect(Collectors.toSet());
+        });
+        queue = start("write-behind", 5000);
+
+        assertFalse(queue.submit(duplicate).get(5, TimeUnit.SECONDS));
+        assertTrue(queue.submit(row()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowToIsolateTheBadRow() throws Exception {
+        PendingAttendance invalid = row();
+        when(attendanceRepository.insertAllIfAbsent(anyList())).thenAnswer(invocation -> {
+            List<PendingAttendance> rows = invocation.getArgument(0);
+            if (rows.contains(invalid)) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            return insertAll(rows);
+        });
+        queue = start("write-behind", 5000);
+
+        CompletableFuture<Boolean> before = queue.submit(row());
+        CompletableFuture<Boolean> rejected = queue.submit(invalid);
+        CompletableFuture<Boolean> after = queue.submit(row());
+
+        assertTrue(before.get(5, TimeUnit.SECONDS));
+        assertTrue(after.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfBlocking() {
+        // Sin flusher (modo directo) nada vacía la cola
+        queue = start("direct", 1);
+
+        queue.submit(row());
+
+        assertThrows(ServiceUnavailableException.class, () -> queue.submit(row()));
+    }
+
+    private AttendanceWriteBehindQueue start(String mode, int capacity) {
+        AttendanceWriteBehindQueue started = new AttendanceWriteBehindQueue(attendanceRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), mode, capacity, BATCH_SIZE, 20, 5000);
+        started.start();
+        return started;
+    }
+
+    private Set<UUID> insertAll(List<PendingAttendance> rows) {
+        statementSizes.add(rows.size());
+        return rows.stream().map(PendingAttendance::getId).collect(Collectors.toSet());
+    }
+
+    private static PendingAttendance row() {
+        LocalDateTime now = LocalDateTime.now();
+        return PendingAttendance.builder()
+                .id(UUID.randomUUID())
+                .sessionId(UUID.randomUUID())
+                .studentId(UUID.randomUUID())
+                .deviceTime(now)
+                .serverTime(now)
+                .withinGeofence(true)
+                .synced(true)
+                .build();
+    }
+}
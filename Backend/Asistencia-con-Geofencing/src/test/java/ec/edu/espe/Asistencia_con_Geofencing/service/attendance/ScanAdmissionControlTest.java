@@ -0,0 +1,109 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.exception.TooManyRequestsException;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrTokenRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScanAdmissionControlTest {
+
+    private static final UUID SESSION_ID = UUID.randomUUID();
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final ActiveQrTokenRegistry activeQrTokenRegistry = mock(ActiveQrTokenRegistry.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch admitted = new CountDownLatch(1);
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @AfterEach
+    void stopScans() {
+        finish.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void scanIsRejectedWhenTheSessionPermitsAreTaken() throws Exception {
+        ScanAdmissionControl control = create(1, 8);
+        CompletableFuture<String> running = holdPermit(control, false);
+
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> control.admit("token", () -> "segundo"));
+
+        assertEquals(RETRY_AFTER_SECONDS, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("scan.admission.rejections")
+                .tag("session", SESSION_ID.toString()).counter().count());
+
+        // Al terminar el escaneo en curso su permiso vuelve a estar disponible
+        finish.countDown();
+        assertEquals("primero", running.get(5, TimeUnit.SECONDS));
+        assertEquals("segundo", control.admit("token", () -> "segundo"));
+    }
+
+    @Test
+    void globalCapRejectsScansOfOtherSessions() throws Exception {
+        ScanAdmissionControl control = create(4, 1);
+        holdPermit(control, false);
+        when(activeQrTokenRegistry.peekSessionId("otra")).thenReturn(Optional.of(UUID.randomUUID()));
+
+        assertThrows(TooManyRequestsException.class, () -> control.admit("otra", () -> "segundo"));
+    }
+
+    @Test
+    void releasedPermitAdmitsTheNextScanBeforeTheFirstFinishes() throws Exception {
+        ScanAdmissionControl control = create(1, 1);
+        CompletableFuture<String> running = holdPermit(control, true);
+
+        assertEquals("segundo", control.admit("token", () -> "segundo"));
+
+        finish.countDown();
+        assertEquals("primero", running.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Admite un escaneo en otro hilo y lo mantiene en curso hasta {@link #finish}.
+     */
+    private CompletableFuture<String> holdPermit(ScanAdmissionControl control, boolean releaseEarly)
+            throws InterruptedException {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> control.admit("token", () -> {
+            if (releaseEarly) {
+                control.releaseHeld();
+            }
+            admitted.countDown();
+            await(finish);
+            return "primero";
+        }), executor);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        return running;
+    }
+
+    private ScanAdmissionControl create(int permitsPerSession, int maxConcurrent) {
+        when(activeQrTokenRegistry.peekSessionId(anyString())).thenReturn(Optional.of(SESSION_ID));
+        return new ScanAdmissionControl(activeQrTokenRegistry, meterRegistry, true, 4, permitsPerSession,
+                maxConcurrent, 50, RETRY_AFTER_SECONDS, 900);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.attendance;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.request.ValidateQrRequest;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.AttendanceResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.AlreadyRegisteredException;
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.model.User;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.ActiveQrTokenRegistry;
+import ec.edu.espe.Asistencia_con_Geofencing.service.qr.QrTokenSigner;
+import ec.edu.espe.Asistencia_con_Geofencing.support.RequiresDatabase;
+import ec.edu.espe.Asistencia_con_Geofencing.support.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sentencias del escaneo de un QR firmado en modo de ingesta directa. La primera validación de la
+ * sesión en el nodo lee el destino del escaneo (una consulta); las siguientes lo encuentran en
+ * memoria y solo ejecutan el INSERT. Corre contra la base PostgreSQL de {@code DATABASE_URL};
+ * sin ella el test se omite. Cada test se revierte al terminar.
+ */
+@RequiresDatabase
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AttendanceServiceImpl.class, ActiveQrTokenRegistry.class, QrTokenSigner.class, ScanValidator.class,
+        StatementCounter.class})
+class ScanStatementCountTest {
+
+    private static final BigDecimal LATITUDE = new BigDecimal("-0.31260000");
+    private static final BigDecimal LONGITUDE = new BigDecimal("-78.44530000");
+
+    @MockitoBean
+    private AttendanceWriteBehindQueue writeBehindQueue;
+
+    @MockitoBean
+    private SensorScoringStage sensorScoringStage;
+
+    @MockitoBean
+    private ScanAdmissionControl scanAdmissionControl;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AttendanceServiceImpl attendanceService;
+
+    @Autowired
+    private QrTokenSigner qrTokenSigner;
+
+    @Autowired
+    private StatementCounter statements;
+
+    @Test
+    void scanResolvesWithOneQueryAndInsertsWithOneStatement() {
+        User teacher = persistUser("docente");
+        User firstStudent = persistUser("estudiante");
+        User secondStudent = persistUser("estudiante");
+        AttendanceSession session = persistActiveSession(teacher);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        String token = qrTokenSigner.sign(session.getId(), qrTokenSigner.rotationAt(now), now.plusMinutes(5)).getToken();
+
+        statements.reset();
+        AttendanceResponse first = attendanceService.validateQrAndRegisterAttendance(
+                request(token), firstStudent.getId(), firstStudent.getFullName());
+        int coldStatements = statements.count();
+
+        statements.reset();
+        attendanceService.validateQrAndRegisterAttendance(request(token), secondStudent.getId(), secondStudent.getFullName());
+        int warmStatements = statements.count();
+
+        assertEquals(session.getId(), first.getSessionId());
+        // Destino del escaneo (token → sesión → geocerca) e INSERT ... ON CONFLICT
+        assertEquals(2, coldStatements);
+        assertEquals(1, warmStatements);
+    }
+
+    @Test
+    void duplicateScanIsDetectedByTheInsert() {
+        User teacher = persistUser("docente");
+        User student = persistUser("estudiante");
+        AttendanceSession session = persistActiveSession(teacher);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        String token = qrTokenSigner.sign(session.getId(), qrTokenSigner.rotationAt(now), now.plusMinutes(5)).getToken();
+        attendanceService.validateQrAndRegisterAttendance(request(token), student.getId(), student.getFullName());
+
+        statements.reset();
+        assertThrows(AlreadyRegisteredException.class, () -> attendanceService.validateQrAndRegisterAttendance(
+                request(token), student.getId(), student.getFullName()));
+        // El INSERT informa la asistencia existente; no hay consulta previa ni posterior
+        assertEquals(1, statements.count());
+    }
+
+    private ValidateQrRequest request(String token) {
+        ValidateQrRequest request = new ValidateQrRequest();
+        request.setToken(token);
+        request.setLatitude(LATITUDE);
+        request.setLongitude(LONGITUDE);
+        request.setDeviceTime(LocalDateTime.now());
+        return request;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + UUID.randomUUID() + "@test.espe.edu.ec");
+        user.setFullName(name);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private AttendanceSession persistActiveSession(User teacher) {
+        GeofenceZone zone = new GeofenceZone();
+        zone.setName("Bloque A");
+        zone.setLatitude(LATITUDE);
+        zone.setLongitude(LONGITUDE);
+        zone.setRadiusMeters(50);
+        entityManager.persist(zone);
+
+        AttendanceSession session = new AttendanceSession();
+        session.setName("Sesión activa");
+        session.setTeacher(teacher);
+        session.setGeofence(zone);
+        session.setStartTime(LocalDateTime.now().minusMinutes(10));
+        session.setActive(true);
+        entityManager.persist(session);
+        return session;
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.dashboard;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.PendingAttendance;
+import ec.edu.espe.Asistencia_con_Geofencing.dto.response.TeacherDashboardResponse;
+import ec.edu.espe.Asistencia_con_Geofencing.model.AttendanceSession;
+import ec.edu.espe.Asistencia_con_Geofencing.model.GeofenceZone;
+import ec.edu.espe.Asistencia_con_Geofencing.model.User;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.support.RequiresDatabase;
+import ec.edu.espe.Asistencia_con_Geofencing.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Las consultas usan SQL de PostgreSQL (ON CONFLICT, CTE), así que el test corre contra la base
+ * configurada en {@code DATABASE_URL} y se omite sin ella; cada test se revierte al terminar.
+ */
+@RequiresDatabase
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DashboardServiceImpl.class, StatementCounter.class})
+class DashboardServiceImplTest {
+
+    private static final int STUDENTS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private DashboardServiceImpl dashboardService;
+
+    @Autowired
+    private StatementCounter statements;
+
+    @Test
+    void teacherDashboardRunsTheSameStatementsForAnyNumberOfSessions() {
+        GeofenceZone zone = persistZone();
+        User teacherWithOneSession = persistUser("docente");
+        User teacherWithManySessions = persistUser("docente");
+        List<User> students = IntStream.range(0, STUDENTS).mapToObj(i -> persistUser("estudiante")).toList();
+        List<AttendanceSession> sessions = new ArrayList<>(persistSessions(teacherWithOneSession, zone, 1));
+        sessions.addAll(persistSessions(teacherWithManySessions, zone, 30));
+        entityManager.flush();
+        attendanceRepository.insertAllIfAbsent(sessions.stream()
+                .flatMap(session -> students.stream().map(student -> attendance(session, student)))
+                .toList());
+        entityManager.clear();
+
+        statements.reset();
+        TeacherDashboardResponse few = dashboardService.getTeacherDashboard(teacherWithOneSession.getId());
+        int fewStatements = statements.count();
+
+        statements.reset();
+        TeacherDashboardResponse many = dashboardService.getTeacherDashboard(teacherWithManySessions.getId());
+        int manyStatements = statements.count();
+
+        assertEquals(1, few.getTotalSessions());
+        assertEquals(30, many.getTotalSessions());
+        assertEquals(30 * STUDENTS, many.getTotalAttendances());
+        assertEquals(STUDENTS, many.getTotalStudentsEnrolled());
+        assertEquals(100.0, many.getAverageAttendanceRate());
+        // Sesiones con contadores, estudiantes distintos y serie mensual
+        assertEquals(3, fewStatements);
+        assertEquals(fewStatements, manyStatements);
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setEmail(name + "-" + UUID.randomUUID() + "@test.espe.edu.ec");
+        user.setFullName(name);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private GeofenceZone persistZone() {
+        GeofenceZone zone = new GeofenceZone();
+        zone.setName("Bloque A");
+        zone.setLatitude(new BigDecimal("-0.31260000"));
+        zone.setLongitude(new BigDecimal("-78.44530000"));
+        zone.setRadiusMeters(50);
+        entityManager.persist(zone);
+        return zone;
+    }
+
+    private List<AttendanceSession> persistSessions(User teacher, GeofenceZone zone, int count) {
+        LocalDateTime start = LocalDateTime.now().minusDays(count);
+        return IntStream.range(0, count).mapToObj(i -> {
+            AttendanceSession session = new AttendanceSession();
+            session.setName("Sesión " + i);
+            session.setTeacher(teacher);
+            session.setGeofence(zone);
+            session.setStartTime(start.plusDays(i));
+            session.setEndTime(start.plusDays(i).plusHours(2));
+            session.setActive(false);
+            entityManager.persist(session);
+            return session;
+        }).toList();
+    }
+
+    private static PendingAttendance attendance(AttendanceSession session, User student) {
+        return PendingAttendance.builder()
+                .id(UUID.randomUUID())
+                .sessionId(session.getId())
+                .studentId(student.getId())
+                .deviceTime(session.getStartTime().plusMinutes(5))
+                .serverTime(session.getStartTime().plusMinutes(5))
+                .latitude(new BigDecimal("-0.31260000"))
+                .longitude(new BigDecimal("-78.44530000"))
+                .withinGeofence(true)
+                .trustScore(100)
+                .synced(true)
+                .build();
+    }
+}
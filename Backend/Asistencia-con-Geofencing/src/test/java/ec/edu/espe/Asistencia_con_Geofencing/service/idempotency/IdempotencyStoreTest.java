@@ -0,0 +1,51 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.idempotency;
+
+import ec.edu.espe.Asistencia_con_Geofencing.exception.IdempotencyKeyReusedException;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final IdempotencyRecordRepository recordRepository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyStore store = new IdempotencyStore(recordRepository, JsonMapper.builder().build(), 24, 100);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryWithTheSameBodyReplaysTheStoredResponse() {
+        when(recordRepository.findActive(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        String first = store.execute(USER_ID, "qr-validate", "key-1", Map.of("token", "A"), String.class, this::run);
+        String retry = store.execute(USER_ID, "qr-validate", "key-1", Map.of("token", "A"), String.class, this::run);
+
+        assertEquals(first, retry);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keyReusedWithADifferentBodyIsRejected() {
+        when(recordRepository.findActive(any(), any(), any(), any())).thenReturn(Optional.empty());
+        store.execute(USER_ID, "qr-validate", "key-1", Map.of("token", "A"), String.class, this::run);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute(
+                USER_ID, "qr-validate", "key-1", Map.of("token", "B"), String.class, this::run));
+        assertEquals(1, executions.get());
+    }
+
+    private String run() {
+        return "respuesta-" + executions.incrementAndGet();
+    }
+}
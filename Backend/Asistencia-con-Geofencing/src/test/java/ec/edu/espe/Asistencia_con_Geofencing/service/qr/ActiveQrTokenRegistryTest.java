@@ -0,0 +1,121 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.attendance.QrScanTarget;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.AttendanceSessionRepository;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.QrTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveQrTokenRegistryTest {
+
+    private static final UUID SESSION_ID = UUID.randomUUID();
+    private static final BigDecimal LATITUDE = new BigDecimal("-0.31260000");
+    private static final BigDecimal LONGITUDE = new BigDecimal("-78.44530000");
+
+    private final AttendanceSessionRepository sessionRepository = mock(AttendanceSessionRepository.class);
+    private final QrTokenRepository qrTokenRepository = mock(QrTokenRepository.class);
+    private final QrTokenSigner qrTokenSigner = new QrTokenSigner("qr-test-secret", "jwt-test-secret", 25, 30);
+    private ActiveQrTokenRegistry registry;
+
+    @BeforeEach
+    void createRegistry() {
+        registry = new ActiveQrTokenRegistry(qrTokenRepository, sessionRepository, qrTokenSigner, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "maxEntryTtlSeconds", 30L);
+        ReflectionTestUtils.setField(registry, "legacyTokensAccepted", true);
+        ReflectionTestUtils.setField(registry, "offlineClockSkewSeconds", 60L);
+
+        QrScanTarget target = new QrScanTarget(SESSION_ID, true, null, UUID.randomUUID(), "Bloque A",
+                LATITUDE, LONGITUDE, 50, null);
+        when(sessionRepository.findScanTarget(SESSION_ID)).thenReturn(Optional.of(target));
+        when(sessionRepository.findScanTargets(anyCollection())).thenReturn(List.of(target));
+    }
+
+    @Test
+    void offlineScanOfATokenMintedMinutesEarlierIsAcceptedAtSyncTime() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime scannedAt = now.minusMinutes(5);
+        String token = mint(scannedAt.minusSeconds(10), scannedAt.plusMinutes(10));
+
+        Map<String, ActiveQrToken> resolved = registry.resolveAll(List.of(token), now);
+
+        assertNotNull(resolved.get(token));
+        assertTrue(registry.isValidOfflineScan(resolved.get(token), scannedAt, now));
+        // La validación en línea del mismo token, aún sin expirar, ya no lo acepta por su rotación
+        assertTrue(registry.resolve(token, now).isEmpty());
+    }
+
+    @Test
+    void offlineScanIsRejectedWhenTheDeviceTimeIsOutsideTheTokenRotation() {
+        LocalDateTime now = LocalDateTime.now();
+        String token = mint(now.minusMinutes(5), now.plusMinutes(10));
+
+        ActiveQrToken entry = registry.resolveAll(List.of(token), now).get(token);
+
+        assertFalse(registry.isValidOfflineScan(entry, now, now));
+    }
+
+    @Test
+    void offlineScanIsRejectedWhenTheTokenHadExpiredAtTheDeviceTime() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime mintedAt = now.minusMinutes(10);
+        String token = mint(mintedAt, mintedAt.plusSeconds(20));
+
+        ActiveQrToken entry = registry.resolveAll(List.of(token), now).get(token);
+
+        assertFalse(registry.isValidOfflineScan(entry, mintedAt.plusMinutes(3), now));
+    }
+
+    @Test
+    void offlineScanCannotClaimADeviceTimeInTheFuture() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime scannedAt = now.plusMinutes(5);
+        String token = mint(scannedAt, scannedAt.plusMinutes(1));
+
+        ActiveQrToken entry = registry.resolveAll(List.of(token), now).get(token);
+
+        assertFalse(registry.isValidOfflineScan(entry, scannedAt, now));
+    }
+
+    @Test
+    void newerLegacyQrReplacesThePreviousOneInMemory() {
+        LocalDateTime now = LocalDateTime.now();
+        when(qrTokenRepository.findScanTarget(eq("OLDTOKEN0001"), any()))
+                .thenReturn(Optional.of(legacyTarget("OLDTOKEN0001", now)), Optional.empty());
+        when(qrTokenRepository.findScanTarget(eq("NEWTOKEN0001"), any()))
+                .thenReturn(Optional.of(legacyTarget("NEWTOKEN0001", now)));
+
+        assertTrue(registry.resolve("OLDTOKEN0001", now).isPresent());
+        assertTrue(registry.resolve("NEWTOKEN0001", now).isPresent());
+
+        // El QR anterior ya no se sirve desde memoria y qr_tokens lo da por invalidado
+        assertTrue(registry.resolve("OLDTOKEN0001", now).isEmpty());
+        assertTrue(registry.resolve("NEWTOKEN0001", now).isPresent());
+    }
+
+    private static QrScanTarget legacyTarget(String token, LocalDateTime now) {
+        return new QrScanTarget(token, UUID.randomUUID(), now.plusMinutes(5), SESSION_ID, true, null,
+                UUID.randomUUID(), "Bloque A", LATITUDE, LONGITUDE, 50, null);
+    }
+
+    private String mint(LocalDateTime mintedAt, LocalDateTime expiresAt) {
+        return qrTokenSigner.sign(SESSION_ID, qrTokenSigner.rotationAt(mintedAt), expiresAt).getToken();
+    }
+}
@@ -0,0 +1,58 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.qr;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrTokenSignerTest {
+
+    private static final long STEP_SECONDS = 25;
+    // Último segundo del paso 1000
+    private static final LocalDateTime END_OF_STEP = LocalDateTime.ofEpochSecond(STEP_SECONDS * 1000 + 24, 0, ZoneOffset.UTC);
+
+    @Test
+    void tokenIsAcceptedForAsLongAsTheTeacherAppDisplaysIt() {
+        QrTokenSigner signer = signer(30);
+        long rotation = signer.rotationAt(END_OF_STEP);
+
+        // La app muestra cada QR 30 s aunque el paso sea de 25 s
+        assertTrue(signer.isCurrent(rotation, END_OF_STEP.plusSeconds(30)));
+        assertFalse(signer.isCurrent(rotation, END_OF_STEP.plusSeconds(52)));
+    }
+
+    @Test
+    void displayNoLongerThanTheStepAcceptsOnlyThePreviousRotation() {
+        QrTokenSigner signer = signer(25);
+        long rotation = signer.rotationAt(END_OF_STEP);
+
+        assertTrue(signer.isCurrent(rotation, END_OF_STEP.plusSeconds(25)));
+        assertFalse(signer.isCurrent(rotation, END_OF_STEP.plusSeconds(30)));
+    }
+
+    @Test
+    void signedTokenRoundTripsAndRejectsTampering() {
+        QrTokenSigner signer = signer(30);
+        UUID sessionId = UUID.randomUUID();
+        SignedQrToken signed = signer.sign(sessionId, 1000, END_OF_STEP.plusMinutes(5));
+
+        SignedQrToken verified = signer.verify(signed.getToken()).orElseThrow();
+        assertEquals(sessionId, verified.getSessionId());
+        assertEquals(1000, verified.getRotation());
+        assertEquals(END_OF_STEP.plusMinutes(5), verified.getExpiresAt());
+
+        String token = signed.getToken();
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        assertTrue(signer.verify(tampered).isEmpty());
+    }
+
+    private static QrTokenSigner signer(long displaySeconds) {
+        return new QrTokenSigner("qr-test-secret", "jwt-test-secret", STEP_SECONDS, displaySeconds);
+    }
+}
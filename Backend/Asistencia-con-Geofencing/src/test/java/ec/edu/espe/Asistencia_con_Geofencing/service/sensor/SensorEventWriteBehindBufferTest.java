@@ -0,0 +1,126 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.dto.sensor.PendingSensorEvent;
+import ec.edu.espe.Asistencia_con_Geofencing.exception.ServiceUnavailableException;
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+import ec.edu.espe.Asistencia_con_Geofencing.repository.SensorEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SensorEventWriteBehindBufferTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final SensorEventRepository sensorEventRepository = mock(SensorEventRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Filas de cada sentencia; la lista del lote se reutiliza, así que se copia al recibirla
+    private final List<List<PendingSensorEvent>> statements = new CopyOnWriteArrayList<>();
+    private SensorEventWriteBehindBuffer buffer;
+
+    @AfterEach
+    void stopFlusher() throws InterruptedException {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void coalescesReadingsFromManyUsersIntoBoundedBatches() throws InterruptedException {
+        when(sensorEventRepository.insertAll(anyList())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+        buffer = create(20000);
+        buffer.start();
+
+        for (int user = 0; user < 40; user++) {
+            buffer.submitAll(readings(5));
+        }
+
+        awaitUntil(() -> writtenRows() == 200);
+        assertTrue(statements.stream().allMatch(rows -> rows.size() <= BATCH_SIZE));
+        assertTrue(statements.size() < 40);
+    }
+
+    @Test
+    void rejectsTheWholeRequestWhenItDoesNotFit() {
+        // Sin iniciar el flusher la cola no se vacía
+        buffer = create(10);
+
+        buffer.submitAll(readings(8));
+        assertThrows(ServiceUnavailableException.class, () -> buffer.submitAll(readings(3)));
+        // No se encoló ninguna lectura del lote rechazado
+        buffer.submitAll(readings(2));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndOnlyTheBadReadingIsDropped() throws InterruptedException {
+        PendingSensorEvent invalid = readings(1).get(0);
+        when(sensorEventRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<PendingSensorEvent> rows = invocation.getArgument(0);
+            if (rows.contains(invalid)) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            return record(rows);
+        });
+        buffer = create(20000);
+        buffer.start();
+
+        List<PendingSensorEvent> request = readings(9);
+        buffer.submitAll(List.of(request.get(0), request.get(1), invalid, request.get(2)));
+        buffer.submitAll(request.subList(3, 9));
+
+        awaitUntil(() -> writtenRows() == 9);
+        assertEquals(1.0, meterRegistry.get("sensor.events.write_behind.failed").counter().count());
+    }
+
+    private SensorEventWriteBehindBuffer create(int capacity) {
+        return new SensorEventWriteBehindBuffer(sensorEventRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, capacity, BATCH_SIZE, 20);
+    }
+
+    private int record(List<PendingSensorEvent> rows) {
+        statements.add(List.copyOf(rows));
+        return rows.size();
+    }
+
+    private int writtenRows() {
+        return statements.stream().mapToInt(List::size).sum();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "El flusher no escribió las lecturas a tiempo");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<PendingSensorEvent> readings(int count) {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, count)
+                .mapToObj(i -> PendingSensorEvent.builder()
+                        .userId(userId)
+                        .type(SensorType.COMPASS)
+                        .azimuth((float) i)
+                        .deviceTime(now.minusSeconds(i))
+                        .serverTime(now)
+                        .build())
+                .toList();
+    }
+}
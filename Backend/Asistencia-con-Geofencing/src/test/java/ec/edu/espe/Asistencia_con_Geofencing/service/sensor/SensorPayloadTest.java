@@ -0,0 +1,73 @@
+package ec.edu.espe.Asistencia_con_Geofencing.service.sensor;
+
+import ec.edu.espe.Asistencia_con_Geofencing.model.enums.SensorType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorPayloadTest {
+
+    private final SensorPayload payload = new SensorPayload();
+
+    @Test
+    void readsAzimuthAsNumberOrQuotedNumber() {
+        assertTrue(payload.parse("{\"azimuth\": 180.5, \"pitch\": \"10.2\"}"));
+        assertEquals(180.5, payload.azimuth(), 1e-9);
+
+        assertTrue(payload.parse("{\"pitch\": 3, \"azimuth\": \"-12.25\"}"));
+        assertEquals(-12.25, payload.azimuth(), 1e-9);
+
+        assertTrue(payload.parse("{\"azimuth\": 1.5e2}"));
+        assertEquals(150.0, payload.azimuth(), 1e-9);
+    }
+
+    @Test
+    void readsProximityAsBooleanOrQuotedBoolean() {
+        assertTrue(payload.parse("{\"near\": true}"));
+        assertEquals(1, payload.near());
+
+        assertTrue(payload.parse("{\"near\": \"false\"}"));
+        assertEquals(0, payload.near());
+    }
+
+    @Test
+    void skipsNestedValuesAndStringsThatLookLikeKeys() {
+        assertTrue(payload.parse("{\"meta\": {\"azimuth\": 1, \"list\": [1, {\"near\": true}]},"
+                + " \"label\": \"near\\\"azimuth\", \"azimuth\": 90}"));
+        assertEquals(90.0, payload.azimuth(), 1e-9);
+        assertEquals(SensorPayload.UNKNOWN, payload.near());
+    }
+
+    @Test
+    void missingFieldsAreUnknownAndMalformedJsonFails() {
+        assertTrue(payload.parse("{}"));
+        assertTrue(Double.isNaN(payload.azimuth()));
+        assertEquals(SensorPayload.UNKNOWN, payload.near());
+
+        assertFalse(payload.parse("azimuth=180"));
+        assertFalse(payload.parse("{\"azimuth\": 180"));
+        assertFalse(payload.parse("{\"azimuth\" 180}"));
+    }
+
+    @Test
+    void azimuthVariationWrapsAroundNorth() {
+        SensorReadingStats stats = new SensorReadingStats();
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 8, 0);
+        stats.add(SensorType.COMPASS, time, 359, SensorPayload.UNKNOWN);
+        stats.add(SensorType.COMPASS, time.plusSeconds(1), 1, SensorPayload.UNKNOWN);
+        stats.add(SensorType.COMPASS, time.plusSeconds(2), 358, SensorPayload.UNKNOWN);
+        stats.add(SensorType.PROXIMITY, time.plusSeconds(3), Double.NaN, 1);
+        stats.add(SensorType.PROXIMITY, time.plusSeconds(4), Double.NaN, 0);
+
+        assertEquals(3.0, stats.azimuthVariation(), 1e-9);
+        assertEquals(3, stats.compassCount());
+        assertEquals(2, stats.proximityCount());
+        assertEquals(1, stats.nearCount());
+        assertTrue(stats.spansAtMost(4));
+        assertFalse(stats.spansAtMost(3));
+    }
+}
@@ -0,0 +1,21 @@
+package ec.edu.espe.Asistencia_con_Geofencing.support;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca los tests que necesitan una base PostgreSQL real: las consultas usan SQL propio de
+ * PostgreSQL (ON CONFLICT, CTE con INSERT, LOCALTIMESTAMP) que no corre en una base embebida.
+ * Solo se ejecutan si {@code DATABASE_URL} apunta a una base (y {@code DATABASE_USERNAME} /
+ * {@code DATABASE_PASSWORD} si hacen falta); sin ella se omiten en lugar de fallar al cargar el contexto.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@EnabledIfEnvironmentVariable(named = "DATABASE_URL", matches = ".+",
+        disabledReason = "Requiere una base PostgreSQL configurada en DATABASE_URL")
+public @interface RequiresDatabase {
+}
@@ -0,0 +1,63 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoDistanceTest {
+
+    // Campus ESPE (Sangolquí)
+    private static final double LAT = -0.3126;
+    private static final double LON = -78.4453;
+    private static final double METERS_PER_DEGREE = Math.PI * GeoDistance.EARTH_RADIUS_METERS / 180.0;
+
+    @Test
+    void haversineOfOneDegreeOfLatitudeIsOneDegreeOfArc() {
+        assertEquals(METERS_PER_DEGREE, GeoDistance.haversineMeters(10, 20, 11, 20), 1e-6);
+        assertEquals(0.0, GeoDistance.haversineMeters(LAT, LON, LAT, LON), 0.0);
+    }
+
+    @Test
+    void nearTheRadiusReturnsExactHaversine() {
+        double latitude = LAT + 100 / METERS_PER_DEGREE;
+        double exact = GeoDistance.haversineMeters(LAT, LON, latitude, LON);
+
+        double distance = GeoDistance.distanceMeters(GeoDistance.Center.of(LAT, LON), latitude, LON, 100);
+
+        assertEquals(exact, distance, 1e-6);
+    }
+
+    @Test
+    void farFromTheRadiusApproximationStaysWithinAMeter() {
+        // ~1,4 km al noreste de una zona de 50 m: se devuelve la aproximación equirectangular
+        double latitude = LAT + 0.009;
+        double longitude = LON + 0.009;
+        double exact = GeoDistance.haversineMeters(LAT, LON, latitude, longitude);
+
+        double distance = GeoDistance.distanceMeters(GeoDistance.Center.of(LAT, LON), latitude, longitude, 50);
+
+        assertEquals(exact, distance, 1.0);
+    }
+
+    @Test
+    void longitudeDifferenceWrapsAroundTheAntimeridian() {
+        double exact = GeoDistance.haversineMeters(0, 179.9999, 0, -179.9999);
+
+        double distance = GeoDistance.distanceMeters(GeoDistance.Center.of(0, 179.9999), 0, -179.9999, 20);
+
+        assertEquals(exact, distance, 1e-6);
+        assertTrue(distance < 30);
+    }
+
+    @Test
+    void validCoordinatesAreFiniteAndWithinRange() {
+        assertTrue(GeoDistance.isValidCoordinate(LAT, LON));
+        assertTrue(GeoDistance.isValidCoordinate(-90, 180));
+        assertFalse(GeoDistance.isValidCoordinate(90.0001, 0));
+        assertFalse(GeoDistance.isValidCoordinate(0, -180.0001));
+        assertFalse(GeoDistance.isValidCoordinate(Double.NaN, 0));
+        assertFalse(GeoDistance.isValidCoordinate(0, Double.POSITIVE_INFINITY));
+    }
+}
@@ -0,0 +1,73 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoPolygonTest {
+
+    private static final double METERS_PER_DEGREE = Math.PI * GeoDistance.EARTH_RADIUS_METERS / 180.0;
+
+    // Edificio en forma de L: el cuadrante noreste del rectángulo envolvente queda fuera
+    private static final GeoPolygon L_SHAPE = GeoPolygon.of(
+            new double[]{0.000, 0.000, 0.001, 0.001, 0.002, 0.002},
+            new double[]{0.000, 0.002, 0.002, 0.001, 0.001, 0.000});
+
+    @Test
+    void containsPointsInsideTheShape() {
+        assertTrue(L_SHAPE.contains(0.0005, 0.0005));
+        assertTrue(L_SHAPE.contains(0.0005, 0.0015));
+        assertTrue(L_SHAPE.contains(0.0015, 0.0005));
+    }
+
+    @Test
+    void rejectsPointsInsideTheBoundingBoxButOutsideTheShape() {
+        assertFalse(L_SHAPE.contains(0.0015, 0.0015));
+        assertFalse(L_SHAPE.contains(0.0030, 0.0005));
+    }
+
+    @Test
+    void distanceIsZeroInsideAndToTheNearestEdgeOutside() {
+        assertEquals(0.0, L_SHAPE.distanceMeters(0.0005, 0.0005), 0.0);
+        // 0,001° al norte del lado superior (latitud 0,002)
+        assertEquals(0.001 * METERS_PER_DEGREE, L_SHAPE.distanceMeters(0.003, 0.0005), 0.5);
+        // En la muesca, a 0,0005° de los dos lados interiores
+        assertEquals(0.0005 * METERS_PER_DEGREE, L_SHAPE.distanceMeters(0.0015, 0.0015), 0.5);
+    }
+
+    @Test
+    void boundingRadiusCoversEveryVertex() {
+        int radius = L_SHAPE.boundingRadiusMeters();
+
+        for (int i = 0; i < L_SHAPE.vertexCount(); i++) {
+            double distance = GeoDistance.haversineMeters(L_SHAPE.centerLatitude(), L_SHAPE.centerLongitude(),
+                    L_SHAPE.latitude(i), L_SHAPE.longitude(i));
+            assertTrue(distance <= radius);
+        }
+    }
+
+    @Test
+    void decodeRestoresTheEncodedVertices() {
+        GeoPolygon decoded = GeoPolygon.decode(L_SHAPE.encoded());
+
+        assertEquals(L_SHAPE.vertexCount(), decoded.vertexCount());
+        assertArrayEquals(L_SHAPE.encoded(), decoded.encoded());
+        for (int i = 0; i < decoded.vertexCount(); i++) {
+            assertEquals(L_SHAPE.latitude(i), decoded.latitude(i), 1e-7);
+            assertEquals(L_SHAPE.longitude(i), decoded.longitude(i), 1e-7);
+        }
+    }
+
+    @Test
+    void rejectsPolygonsWithFewerThanThreeVertices() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoPolygon.of(new double[]{0, 1}, new double[]{0, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoPolygon.of(new double[]{0, 1, 2}, new double[]{0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.decode(new byte[20]));
+    }
+}
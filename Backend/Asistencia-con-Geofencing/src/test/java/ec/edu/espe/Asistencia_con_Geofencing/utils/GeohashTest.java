@@ -0,0 +1,47 @@
+package ec.edu.espe.Asistencia_con_Geofencing.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeohashTest {
+
+    private static final double LAT = -0.3126;
+    private static final double LON = -78.4453;
+
+    @Test
+    void encodesTheReferenceGeohash() {
+        assertEquals("u4pruydqqvj", Geohash.cell(57.64911, 10.40744, 11).hash());
+    }
+
+    @Test
+    void cellContainsThePointAndHasTheExpectedSize() {
+        Geohash.Cell cell = Geohash.cell(LAT, LON, 8);
+
+        assertTrue(cell.minLatitude() <= LAT && LAT < cell.maxLatitude());
+        assertTrue(cell.minLongitude() <= LON && LON < cell.maxLongitude());
+        // Precisión 8: 20 bits de longitud y 20 de latitud
+        assertEquals(360.0 / (1 << 20), cell.maxLongitude() - cell.minLongitude(), 1e-12);
+        assertEquals(180.0 / (1 << 20), cell.maxLatitude() - cell.minLatitude(), 1e-12);
+    }
+
+    @Test
+    void shorterPrecisionIsAPrefix() {
+        assertTrue(Geohash.cell(LAT, LON, 8).hash().startsWith(Geohash.cell(LAT, LON, 6).hash()));
+    }
+
+    @Test
+    void halfDiagonalBoundsEveryCorner() {
+        Geohash.Cell cell = Geohash.cell(LAT, LON, 8);
+        double halfDiagonal = cell.halfDiagonalMeters();
+
+        for (double latitude : new double[]{cell.minLatitude(), cell.maxLatitude()}) {
+            for (double longitude : new double[]{cell.minLongitude(), cell.maxLongitude()}) {
+                double distance = GeoDistance.haversineMeters(cell.centerLatitude(), cell.centerLongitude(),
+                        latitude, longitude);
+                assertTrue(distance <= halfDiagonal + 1e-9);
+            }
+        }
+    }
+}